@@ -0,0 +1,143 @@
+package cachevg.benchmark;
+
+import cachevg.client.CacheClient;
+import cachevg.concurrent.WaitStrategy;
+import cachevg.connection.tcp.server.NIOServer;
+import cachevg.metrics.Metrics;
+import cachevg.parser.AutomataParser;
+import cachevg.processor.CommandMapper;
+import cachevg.runner.CommandHandler;
+import cachevg.runner.ProcessingMode;
+import cachevg.runner.ProcessingPipeline;
+import cachevg.runner.ServerStarter;
+import cachevg.storage.ShardedStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// the same loopback setup as LoopbackBenchmark, driven through CacheClient: "get" and "put" wait for every reply
+// like a blocking client does, "pipelinedGet" keeps a window of requests in flight on the shared connections
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-jmh.xml")
+@Threads(4)
+public class ClientBenchmark {
+    private static final int WINDOW = 64;
+
+    @State(Scope.Benchmark)
+    public static class ServerState {
+        @Param({"1", "4"})
+        private int connections;
+
+        @Param({"64"})
+        private int valueSize;
+
+        private NIOServer server;
+        private Thread serverThread;
+        private CacheClient client;
+
+        @Setup(Level.Trial)
+        public void start() throws Exception {
+            int port;
+            try (var probe = new ServerSocket(0)) {
+                port = probe.getLocalPort();
+            }
+            var parser = new AutomataParser();
+            var storage = new ShardedStorage(16);
+            var metrics = new Metrics();
+            server = new NIOServer(InetAddress.getLoopbackAddress(), port, 2, parser, 64, 4 * 1024 * 1024, 4096, metrics);
+            var commandHandler = new CommandHandler(server, new CommandMapper(storage, metrics));
+            var processingPipeline = new ProcessingPipeline(
+                    Executors.newFixedThreadPool(4),
+                    ProcessingMode.PLATFORM,
+                    4,
+                    64,
+                    1024,
+                    WaitStrategy.PARK,
+                    commandHandler);
+            serverThread = new Thread(new ServerStarter(server, processingPipeline)::run, "benchmark-server");
+            serverThread.start();
+            awaitStarted(port);
+            client = CacheClient.connect(InetAddress.getLoopbackAddress().getHostAddress(), port, connections);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws InterruptedException {
+            client.close();
+            server.stop();
+            serverThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        private void awaitStarted(int port) throws Exception {
+            var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (true) {
+                try (var socket = new Socket()) {
+                    socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+                    return;
+                } catch (IOException ex) {
+                    if (System.nanoTime() > deadline) {
+                        throw ex;
+                    }
+                    Thread.sleep(10);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class KeyState {
+        private byte[] key;
+        private byte[] value;
+        private final CompletableFuture<?>[] window = new CompletableFuture<?>[WINDOW];
+
+        @Setup(Level.Trial)
+        public void prepare(ServerState server) {
+            key = ("key:" + Thread.currentThread().threadId()).getBytes(StandardCharsets.UTF_8);
+            value = "v".repeat(server.valueSize).getBytes(StandardCharsets.UTF_8);
+            server.client.put(key, value).join();
+        }
+    }
+
+    @Benchmark
+    public byte[] get(ServerState server, KeyState state) {
+        return server.client.get(state.key).join();
+    }
+
+    @Benchmark
+    public void put(ServerState server, KeyState state) {
+        server.client.put(state.key, state.value).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WINDOW)
+    public void pipelinedGet(ServerState server, KeyState state) {
+        for (var idx = 0; idx < WINDOW; idx++) {
+            state.window[idx] = server.client.get(state.key);
+        }
+        CompletableFuture.allOf(state.window).join();
+    }
+}
@@ -0,0 +1,55 @@
+package cachevg.benchmark;
+
+import cachevg.command.Opcodes;
+import cachevg.metrics.Metrics;
+import cachevg.processor.CommandMapper;
+import cachevg.storage.ShardedStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-jmh.xml")
+public class CommandDispatchBenchmark {
+
+    @Param({"GET", "put", "UNKNOWN"})
+    private String command;
+
+    private CommandMapper commandMapper;
+    private byte opcode;
+
+    @Setup
+    public void setup() {
+        commandMapper = new CommandMapper(new ShardedStorage(1), new Metrics());
+        opcode = switch (command.toUpperCase()) {
+            case "GET" -> Opcodes.GET;
+            case "PUT" -> Opcodes.PUT;
+            default -> 0x1f;
+        };
+    }
+
+    @Benchmark
+    public void dispatch(Blackhole blackhole) {
+        blackhole.consume(commandMapper.mapCommandToProcessor(command));
+    }
+
+    @Benchmark
+    public void opcodeDispatch(Blackhole blackhole) {
+        blackhole.consume(commandMapper.mapOpcodeToProcessor(opcode));
+    }
+}
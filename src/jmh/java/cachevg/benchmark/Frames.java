@@ -0,0 +1,44 @@
+package cachevg.benchmark;
+
+import cachevg.parser.AutomataParser;
+import cachevg.parser.MessageParser;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+final class Frames {
+    private static final MessageParser PARSER = new AutomataParser();
+
+    private Frames() {
+    }
+
+    static byte[] frame(String command) {
+        return PARSER.encode(command.getBytes(UTF_8));
+    }
+
+    static ByteBuffer frames(String command, int count) {
+        var frame = frame(command);
+        var buffer = ByteBuffer.allocateDirect(frame.length * count);
+        for (var idx = 0; idx < count; idx++) {
+            buffer.put(frame);
+        }
+        return buffer.flip();
+    }
+
+    static byte[] read(DataInputStream in) throws IOException {
+        if (in.readByte() != MessageParser.HEADER) {
+            throw new IOException("Unexpected frame header");
+        }
+        var length = in.readInt();
+        in.readByte();
+        var payload = new byte[length];
+        in.readFully(payload);
+        if (in.readByte() != MessageParser.END_MESSAGE) {
+            throw new IOException("Unexpected frame end");
+        }
+        return payload;
+    }
+}
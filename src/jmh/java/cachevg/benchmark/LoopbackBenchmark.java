@@ -0,0 +1,164 @@
+package cachevg.benchmark;
+
+import cachevg.concurrent.WaitStrategy;
+import cachevg.connection.tcp.server.NIOServer;
+import cachevg.metrics.Metrics;
+import cachevg.parser.AutomataParser;
+import cachevg.processor.CommandMapper;
+import cachevg.runner.CommandHandler;
+import cachevg.runner.ProcessingMode;
+import cachevg.runner.ProcessingPipeline;
+import cachevg.runner.ServerStarter;
+import cachevg.storage.ShardedStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-jmh.xml")
+@Threads(4)
+public class LoopbackBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ServerState {
+        @Param({"2"})
+        private int ioThreads;
+
+        @Param({"4"})
+        private int processingThreads;
+
+        @Param({"PLATFORM", "VIRTUAL"})
+        private ProcessingMode processingMode;
+
+        @Param({"BUSY_SPIN", "YIELD", "PARK"})
+        private WaitStrategy waitStrategy;
+
+        private NIOServer server;
+        private Thread serverThread;
+        private int port;
+
+        @Setup(Level.Trial)
+        public void start() throws Exception {
+            try (var probe = new ServerSocket(0)) {
+                port = probe.getLocalPort();
+            }
+            var parser = new AutomataParser();
+            var storage = new ShardedStorage(16);
+            var metrics = new Metrics();
+            server = new NIOServer(InetAddress.getLoopbackAddress(), port, ioThreads, parser, 64, 4 * 1024 * 1024, 4096, metrics);
+            var commandHandler = new CommandHandler(server, new CommandMapper(storage, metrics));
+            var executor = processingMode == ProcessingMode.VIRTUAL
+                    ? Executors.newVirtualThreadPerTaskExecutor()
+                    : Executors.newFixedThreadPool(processingThreads);
+            var processingPipeline = new ProcessingPipeline(
+                    executor,
+                    processingMode,
+                    processingThreads,
+                    64,
+                    1024,
+                    waitStrategy,
+                    commandHandler);
+            serverThread = new Thread(new ServerStarter(server, processingPipeline)::run, "benchmark-server");
+            serverThread.start();
+            awaitStarted();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws InterruptedException {
+            server.stop();
+            serverThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        private void awaitStarted() throws Exception {
+            var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (true) {
+                try (var socket = new Socket()) {
+                    socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+                    return;
+                } catch (IOException ex) {
+                    if (System.nanoTime() > deadline) {
+                        throw ex;
+                    }
+                    Thread.sleep(10);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ClientState {
+        @Param({"64"})
+        private int valueSize;
+
+        private Socket socket;
+        private OutputStream out;
+        private DataInputStream in;
+        private byte[] ping;
+        private byte[] put;
+        private byte[] get;
+
+        @Setup(Level.Trial)
+        public void connect(ServerState server) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.port);
+            socket.setTcpNoDelay(true);
+            out = socket.getOutputStream();
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            var key = "key:" + Thread.currentThread().threadId();
+            ping = Frames.frame("PING");
+            put = Frames.frame("PUT " + key + " " + "v".repeat(valueSize));
+            get = Frames.frame("GET " + key);
+            roundTrip(put);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            socket.close();
+        }
+
+        byte[] roundTrip(byte[] frame) throws IOException {
+            out.write(frame);
+            out.flush();
+            return Frames.read(in);
+        }
+    }
+
+    @Benchmark
+    public byte[] ping(ClientState client) throws IOException {
+        return client.roundTrip(client.ping);
+    }
+
+    @Benchmark
+    public byte[] put(ClientState client) throws IOException {
+        return client.roundTrip(client.put);
+    }
+
+    @Benchmark
+    public byte[] get(ClientState client) throws IOException {
+        return client.roundTrip(client.get);
+    }
+}
@@ -0,0 +1,79 @@
+package cachevg.benchmark;
+
+import cachevg.parser.AutomataParser;
+import cachevg.parser.FrameHandler;
+import cachevg.parser.MessageParser;
+import cachevg.parser.ParsingState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-jmh.xml")
+public class ParserBenchmark {
+    private static final int PIPELINED_FRAMES = 64;
+
+    @Param({"16", "1024", "65536"})
+    private int valueSize;
+
+    private final MessageParser parser = new AutomataParser();
+
+    private ByteBuffer single;
+    private ByteBuffer pipelined;
+    private int splitAt;
+
+    @Setup
+    public void setup() {
+        var command = "PUT key " + "v".repeat(valueSize);
+        single = Frames.frames(command, 1);
+        pipelined = Frames.frames(command, PIPELINED_FRAMES);
+        splitAt = single.limit() / 2;
+    }
+
+    @Benchmark
+    public int singleFrame(Blackhole blackhole) {
+        single.clear();
+        return parser.parseMessage(new ParsingState(), single, consumer(blackhole));
+    }
+
+    @Benchmark
+    public int splitFrame(Blackhole blackhole) {
+        var state = new ParsingState();
+        var handler = consumer(blackhole);
+        var end = single.capacity();
+        // the first read delivers half of the frame, the second one the rest
+        single.clear().limit(splitAt);
+        var frames = parser.parseMessage(state, single, handler);
+        single.limit(end);
+        return frames + parser.parseMessage(state, single, handler);
+    }
+
+    @Benchmark
+    public int pipelinedFrames(Blackhole blackhole) {
+        pipelined.clear();
+        return parser.parseMessage(new ParsingState(), pipelined, consumer(blackhole));
+    }
+
+    private static FrameHandler consumer(Blackhole blackhole) {
+        return (buffer, offset, length) -> {
+            blackhole.consume(buffer.get(offset));
+            blackhole.consume(length);
+        };
+    }
+}
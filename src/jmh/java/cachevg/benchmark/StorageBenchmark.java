@@ -0,0 +1,88 @@
+package cachevg.benchmark;
+
+import cachevg.storage.EvictionPolicyType;
+import cachevg.storage.Key;
+import cachevg.storage.ShardedStorage;
+import cachevg.storage.Storage;
+import cachevg.storage.StorageMode;
+import cachevg.storage.Value;
+import cachevg.types.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-jmh.xml")
+public abstract class StorageBenchmark {
+    private static final int KEYS = 1 << 16;
+
+    @Param({"16"})
+    private int shards;
+
+    @Param({"HEAP", "OFF_HEAP"})
+    private StorageMode storageMode;
+
+    @Param({"64"})
+    private int valueSize;
+
+    private Storage storage;
+    private Key[] keys;
+    private Value value;
+
+    @Setup
+    public void setup() {
+        storage = new ShardedStorage(shards, 0, 0, EvictionPolicyType.LRU, storageMode);
+        keys = new Key[KEYS];
+        value = new Value(Type.STRING, new byte[valueSize]);
+        for (var idx = 0; idx < KEYS; idx++) {
+            keys[idx] = Key.of("key:" + idx);
+            storage.put(keys[idx], value);
+        }
+    }
+
+    @Benchmark
+    public Value get() {
+        return storage.get(randomKey());
+    }
+
+    @Benchmark
+    public Value put() {
+        return storage.put(randomKey(), value);
+    }
+
+    private Key randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(KEYS)];
+    }
+
+    @Threads(1)
+    public static class Threads1 extends StorageBenchmark {
+    }
+
+    @Threads(4)
+    public static class Threads4 extends StorageBenchmark {
+    }
+
+    @Threads(16)
+    public static class Threads16 extends StorageBenchmark {
+    }
+
+    @Threads(64)
+    public static class Threads64 extends StorageBenchmark {
+    }
+}
@@ -1,17 +1,26 @@
 package cachevg;
 
+import cachevg.cluster.Cluster;
 import cachevg.config.ServerConfig;
 import cachevg.config.ServerStartupProperties;
 import cachevg.connection.tcp.server.Server;
-import cachevg.parser.MessageParser;
+import cachevg.metrics.Metrics;
 import cachevg.parser.YamlParser;
+import cachevg.persistence.AppendOnlyLog;
+import cachevg.persistence.Snapshots;
+import cachevg.processor.CommandMapper;
+import cachevg.replication.ReplicaLink;
+import cachevg.replication.ReplicationSource;
+import cachevg.runner.CommandHandler;
+import cachevg.runner.ProcessingPipeline;
 import cachevg.runner.ServerStarter;
+import cachevg.storage.Storage;
+import cachevg.tracking.KeyTracker;
 import com.sun.management.OperatingSystemMXBean;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.lang.management.ManagementFactory;
-import java.util.concurrent.ExecutorService;
 
 public class Gate {
 
@@ -29,11 +38,34 @@ public class Gate {
         ServerStartupProperties properties = new YamlParser().parse(propsPath);
         ServerConfig config = new ServerConfig(properties);
 
-        Server server = config.server();
-        MessageParser parser = config.parser();
-        ExecutorService executorService = config.executorForProcessing();
+        Metrics metrics = config.metrics();
+        Server server = config.server(metrics);
+        Storage storage = config.storage(metrics);
+        AppendOnlyLog appendOnlyLog = config.appendOnlyLog(storage, metrics);
+        Snapshots snapshots = config.snapshots(storage, metrics);
+        // the keyspace is restored before the server accepts its first connection,
+        // the log is preferred because it is at least as recent as any snapshot, unless it holds no records yet
+        if (appendOnlyLog != null) {
+            appendOnlyLog.open(snapshots::load);
+        } else {
+            snapshots.load();
+        }
+        config.scheduleSnapshots(snapshots);
+        ReplicationSource replicationSource = config.replicationSource(storage, metrics);
+        if (replicationSource != null) {
+            replicationSource.start();
+        }
+        ReplicaLink replicaLink = config.replicaLink(storage, metrics);
+        if (replicaLink != null) {
+            replicaLink.start();
+        }
+        Cluster cluster = config.cluster(storage, metrics);
+        KeyTracker keyTracker = config.keyTracker(server, storage, metrics);
+        CommandMapper commandMapper = config.commandMapper(storage, metrics, snapshots, cluster, keyTracker);
+        CommandHandler commandHandler = new CommandHandler(server, commandMapper, appendOnlyLog);
+        ProcessingPipeline processingPipeline = config.processingPipeline(commandHandler, metrics);
 
-        ServerStarter serverStarter = new ServerStarter(executorService, server, parser);
+        ServerStarter serverStarter = new ServerStarter(server, processingPipeline);
 
         serverStarter.run();
     }
@@ -0,0 +1,71 @@
+package cachevg.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class BufferPool {
+    private static final int MIN_SIZE_SHIFT = 10;
+    private static final int MAX_RETAINED_BYTES_PER_CLASS = 4 * 1024 * 1024;
+
+    private final List<AtomicReferenceArray<PooledBuffer>> sizeClasses = new ArrayList<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder drops = new LongAdder();
+
+    public BufferPool(int maxBufferSize, int slotsPerClass) {
+        for (var idx = 0; idx <= sizeClass(maxBufferSize); idx++) {
+            var slots = Math.max(1, Math.min(slotsPerClass, MAX_RETAINED_BYTES_PER_CLASS >> (idx + MIN_SIZE_SHIFT)));
+            sizeClasses.add(new AtomicReferenceArray<>(slots));
+        }
+    }
+
+    public PooledBuffer acquire(int size) {
+        var sizeClass = sizeClass(size);
+        if (sizeClass >= sizeClasses.size()) {
+            misses.increment();
+            return new PooledBuffer(ByteBuffer.allocateDirect(size), null, sizeClass);
+        }
+        var slots = sizeClasses.get(sizeClass);
+        for (var idx = 0; idx < slots.length(); idx++) {
+            if (slots.get(idx) != null) {
+                var pooled = slots.getAndSet(idx, null);
+                if (pooled != null) {
+                    hits.increment();
+                    pooled.reset();
+                    return pooled;
+                }
+            }
+        }
+        misses.increment();
+        return new PooledBuffer(ByteBuffer.allocateDirect(1 << (sizeClass + MIN_SIZE_SHIFT)), this, sizeClass);
+    }
+
+    void recycle(PooledBuffer pooled) {
+        var slots = sizeClasses.get(pooled.sizeClass());
+        for (var idx = 0; idx < slots.length(); idx++) {
+            if (slots.get(idx) == null && slots.compareAndSet(idx, null, pooled)) {
+                return;
+            }
+        }
+        drops.increment();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long drops() {
+        return drops.sum();
+    }
+
+    private static int sizeClass(int size) {
+        return Math.max(0, Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(1, size) - 1) - MIN_SIZE_SHIFT);
+    }
+}
@@ -0,0 +1,52 @@
+package cachevg.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class PooledBuffer {
+    private final ByteBuffer buffer;
+    private final BufferPool pool;
+    private final int sizeClass;
+    private final AtomicInteger refCnt = new AtomicInteger(1);
+
+    PooledBuffer(ByteBuffer buffer, BufferPool pool, int sizeClass) {
+        this.buffer = buffer;
+        this.pool = pool;
+        this.sizeClass = sizeClass;
+    }
+
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    public PooledBuffer retain() {
+        if (refCnt.getAndIncrement() <= 0) {
+            throw new IllegalStateException("Buffer is already released");
+        }
+        return this;
+    }
+
+    public void release() {
+        var refs = refCnt.decrementAndGet();
+        if (refs == 0) {
+            if (pool != null) {
+                pool.recycle(this);
+            }
+        } else if (refs < 0) {
+            throw new IllegalStateException("Buffer is released more times than retained");
+        }
+    }
+
+    int sizeClass() {
+        return sizeClass;
+    }
+
+    void reset() {
+        buffer.clear();
+        refCnt.set(1);
+    }
+}
@@ -0,0 +1,208 @@
+package cachevg.client;
+
+import cachevg.command.CommandNames;
+import cachevg.command.Opcodes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// requests are spread over a pool of connections and pipelined on each of them: a request is encoded into its
+// connection's buffer and answered through a future, which the event loop completes when the reply arrives.
+// Futures complete on the event loop thread, so slow dependent stages should use the async variants
+public class CacheClient implements AutoCloseable {
+    private final InetSocketAddress address;
+    private final ClientEventLoop eventLoop;
+    private final ClientConnection[] connections;
+    private final boolean compressedValues;
+    private final NearCache nearCache;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private CacheClient(InetSocketAddress address, int connections, boolean compressedValues, int nearCacheEntries) {
+        this.address = address;
+        this.compressedValues = compressedValues;
+        this.nearCache = nearCacheEntries > 0 ? new NearCache(nearCacheEntries) : null;
+        this.eventLoop = new ClientEventLoop("cachevg-client-" + address.getPort());
+        this.connections = new ClientConnection[connections];
+    }
+
+    public static CacheClient connect(String host, int port, int connections) {
+        return connect(host, port, connections, false);
+    }
+
+    // with compressedValues the server sends values it keeps compressed as they are, and they are inflated here
+    public static CacheClient connect(String host, int port, int connections, boolean compressedValues) {
+        return connect(host, port, connections, compressedValues, 0);
+    }
+
+    // with nearCacheEntries, up to that many values read by get are kept here and served without a round trip.
+    // The connections turn tracking on, so the server pushes an invalidation when a key read through them changes
+    public static CacheClient connect(String host, int port, int connections, boolean compressedValues, int nearCacheEntries) {
+        if (connections < 1) {
+            throw new IllegalArgumentException("At least one connection is needed");
+        }
+        var client = new CacheClient(new InetSocketAddress(host, port), connections, compressedValues, nearCacheEntries);
+        try {
+            for (var idx = 0; idx < connections; idx++) {
+                client.connections[idx] = client.open();
+            }
+        } catch (UncheckedIOException ex) {
+            client.close();
+            throw ex;
+        }
+        return client;
+    }
+
+    public CompletableFuture<Void> ping() {
+        return send(Opcodes.PING, ReplyDecoder.VALUE).thenAccept(pong -> {
+        });
+    }
+
+    // completes with null when the key is absent
+    public CompletableFuture<byte[]> get(byte[] key) {
+        if (nearCache == null) {
+            return send(Opcodes.GET, ReplyDecoder.VALUE, key);
+        }
+        var cached = nearCache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        var token = nearCache.beginRead(key);
+        return send(Opcodes.GET, ReplyDecoder.EXPIRING_VALUE, key)
+                .whenComplete((reply, failure) -> nearCache.completeRead(key, token, failure == null ? reply : null))
+                .thenApply(ExpiringValue::value);
+    }
+
+    public CompletableFuture<byte[]> get(String key) {
+        return get(bytes(key));
+    }
+
+    // writes drop the key from the near cache right away, the server's invalidation only follows
+    public CompletableFuture<Void> put(byte[] key, byte[] value) {
+        invalidate(key);
+        return send(Opcodes.PUT, ReplyDecoder.OK, key, value);
+    }
+
+    public CompletableFuture<Void> put(byte[] key, byte[] value, long ttlSeconds) {
+        invalidate(key);
+        var ttl = ByteBuffer.allocate(Long.BYTES).putLong(ttlSeconds).array();
+        return send(Opcodes.PUT, ReplyDecoder.OK, key, value, ttl);
+    }
+
+    public CompletableFuture<Void> put(String key, String value) {
+        return put(bytes(key), bytes(value));
+    }
+
+    // completes with true when the key was there
+    public CompletableFuture<Boolean> remove(byte[] key) {
+        invalidate(key);
+        return send(Opcodes.REMOVE, ReplyDecoder.INTEGER, key).thenApply(removed -> removed > 0);
+    }
+
+    public CompletableFuture<Boolean> remove(String key) {
+        return remove(bytes(key));
+    }
+
+    // values in the order of the keys, null for absent ones
+    public CompletableFuture<List<byte[]>> getAll(List<byte[]> keys) {
+        return send(Opcodes.MGET, ReplyDecoder.ARRAY, keys.toArray(new byte[0][]));
+    }
+
+    public CompletableFuture<Void> putAll(List<byte[]> keys, List<byte[]> values) {
+        if (keys.size() != values.size()) {
+            throw new IllegalArgumentException("Every key needs a value");
+        }
+        var arguments = new byte[keys.size() * 2][];
+        for (var idx = 0; idx < keys.size(); idx++) {
+            invalidate(keys.get(idx));
+            arguments[idx * 2] = keys.get(idx);
+            arguments[idx * 2 + 1] = values.get(idx);
+        }
+        return send(Opcodes.MPUT, ReplyDecoder.OK, arguments);
+    }
+
+    // completes with the number of keys that were there
+    public CompletableFuture<Long> removeAll(List<byte[]> keys) {
+        keys.forEach(this::invalidate);
+        return send(Opcodes.MREMOVE, ReplyDecoder.INTEGER, keys.toArray(new byte[0][]));
+    }
+
+    @Override
+    public void close() {
+        try {
+            eventLoop.close();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // a connection that can't be reopened fails the request rather than throwing at the caller
+    private <T> CompletableFuture<T> send(byte opcode, ReplyDecoder<T> decoder, byte[]... arguments) {
+        ClientConnection connection;
+        try {
+            connection = connection();
+        } catch (UncheckedIOException ex) {
+            return CompletableFuture.failedFuture(new CacheClientException("Can't connect to " + address, ex.getCause()));
+        }
+        return connection.send(opcode, decoder, arguments);
+    }
+
+    // round robin; a connection the server dropped is replaced on its next turn
+    private ClientConnection connection() {
+        var idx = Math.floorMod(next.getAndIncrement(), connections.length);
+        var connection = connections[idx];
+        if (connection == null || connection.isClosed()) {
+            synchronized (this) {
+                connection = connections[idx];
+                if (connection == null || connection.isClosed()) {
+                    connection = open();
+                    connections[idx] = connection;
+                }
+            }
+        }
+        return connection;
+    }
+
+    private ClientConnection open() {
+        try {
+            var channel = SocketChannel.open(address);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.configureBlocking(false);
+            var connection = new ClientConnection(channel, eventLoop, nearCache);
+            eventLoop.register(connection);
+            // commands run in order, so the settings apply before any request sent after them
+            if (compressedValues) {
+                connection.send(Opcodes.CLIENT, ReplyDecoder.OK, bytes(CommandNames.COMPRESSION), bytes(CommandNames.ON));
+            }
+            if (nearCache != null) {
+                // without tracking nothing would ever invalidate the near cache, so the connection is dropped
+                connection.send(Opcodes.CLIENT, ReplyDecoder.OK, bytes(CommandNames.TRACKING), bytes(CommandNames.ON))
+                        .whenComplete((ok, failure) -> {
+                            if (failure != null) {
+                                connection.fail(failure);
+                            }
+                        });
+            }
+            return connection;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void invalidate(byte[] key) {
+        if (nearCache != null) {
+            nearCache.invalidate(key);
+        }
+    }
+
+    private static byte[] bytes(String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,13 @@
+package cachevg.client;
+
+// an error reply from the server, or the loss of the connection a request was sent on
+public class CacheClientException extends RuntimeException {
+
+    public CacheClientException(String message) {
+        super(message);
+    }
+
+    public CacheClientException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,207 @@
+package cachevg.client;
+
+import cachevg.command.ReplyCodes;
+import cachevg.parser.MessageParser;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// callers encode requests into the pending buffer under the lock; the event loop swaps it with the writing buffer
+// and writes everything encoded since the previous swap at once, so concurrent requests share writes.
+// The server answers a connection's requests in order, so replies are matched to the oldest pending reply
+final class ClientConnection {
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_RETAINED_BUFFER_BYTES = 4 * 1024 * 1024;
+
+    private final SocketChannel channel;
+    private final ClientEventLoop eventLoop;
+    private final NearCache nearCache;
+    private final Lock lock = new ReentrantLock();
+    private final Queue<PendingReply<?>> inflight = new ConcurrentLinkedQueue<>();
+    private ByteBuffer pending = ByteBuffer.allocateDirect(INITIAL_BUFFER_BYTES);
+    private ByteBuffer writing = ByteBuffer.allocateDirect(INITIAL_BUFFER_BYTES).flip();
+    private ByteBuffer reading = ByteBuffer.allocateDirect(INITIAL_BUFFER_BYTES);
+    private boolean flushScheduled;
+    private volatile boolean closed;
+    private SelectionKey key;
+
+    // invalidations pushed by the server go to the near cache, which may be null when the connection does not track
+    ClientConnection(SocketChannel channel, ClientEventLoop eventLoop, NearCache nearCache) {
+        this.channel = channel;
+        this.eventLoop = eventLoop;
+        this.nearCache = nearCache;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    <T> CompletableFuture<T> send(byte opcode, ReplyDecoder<T> decoder, byte[]... arguments) {
+        var future = new CompletableFuture<T>();
+        var length = 1;
+        for (var argument : arguments) {
+            length += Integer.BYTES + argument.length;
+        }
+        if (length > MessageParser.MAX_MESSAGE_SIZE) {
+            future.completeExceptionally(new IllegalArgumentException("Request of " + length + " bytes is too large"));
+            return future;
+        }
+        var schedule = false;
+        lock.lock();
+        try {
+            if (closed) {
+                future.completeExceptionally(new CacheClientException("Connection is closed"));
+                return future;
+            }
+            ensureCapacity(MessageParser.FRAME_OVERHEAD + length);
+            pending.put(MessageParser.HEADER).putInt(length).put(MessageParser.BEGIN_MESSAGE).put(opcode);
+            for (var argument : arguments) {
+                pending.putInt(argument.length).put(argument);
+            }
+            pending.put(MessageParser.END_MESSAGE);
+            inflight.add(new PendingReply<>(future, decoder));
+            if (!flushScheduled) {
+                flushScheduled = true;
+                schedule = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (schedule) {
+            eventLoop.flushLater(this);
+        }
+        return future;
+    }
+
+    // the methods below run on the event loop only
+
+    void register(Selector selector) throws ClosedChannelException {
+        key = channel.register(selector, SelectionKey.OP_READ, this);
+    }
+
+    void flush() throws IOException {
+        while (true) {
+            if (writing.hasRemaining()) {
+                channel.write(writing);
+                if (writing.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+            lock.lock();
+            try {
+                if (pending.position() == 0) {
+                    flushScheduled = false;
+                    key.interestOps(SelectionKey.OP_READ);
+                    return;
+                }
+                var written = writing;
+                writing = pending;
+                pending = written.capacity() > MAX_RETAINED_BUFFER_BYTES
+                        ? ByteBuffer.allocateDirect(INITIAL_BUFFER_BYTES)
+                        : written.clear();
+            } finally {
+                lock.unlock();
+            }
+            writing.flip();
+        }
+    }
+
+    void read() throws IOException {
+        if (channel.read(reading) < 0) {
+            throw new EOFException("Connection closed by the server");
+        }
+        reading.flip();
+        var required = 0;
+        // a reply may fail the connection from its callback
+        while (!closed && reading.remaining() > MessageParser.BEGIN_MESSAGE_INDEX) {
+            var start = reading.position();
+            if (reading.get(start) != MessageParser.HEADER) {
+                throw new IOException("Malformed reply frame");
+            }
+            var frameLength = MessageParser.FRAME_OVERHEAD + reading.getInt(start + MessageParser.LENGTH_INDEX);
+            if (reading.remaining() < frameLength) {
+                required = frameLength;
+                break;
+            }
+            var payloadStart = start + MessageParser.BEGIN_MESSAGE_INDEX + 1;
+            reading.position(start + frameLength);
+            if (reading.get(payloadStart) == ReplyCodes.INVALIDATE) {
+                invalidate(payloadStart);
+                continue;
+            }
+            if (reading.get(payloadStart) == ReplyCodes.INVALIDATE_BUCKET) {
+                invalidateBucket(payloadStart);
+                continue;
+            }
+            var reply = inflight.poll();
+            if (reply == null) {
+                throw new IOException("Reply without a request");
+            }
+            reply.complete(reading.slice(payloadStart, frameLength - MessageParser.FRAME_OVERHEAD));
+        }
+        reading.compact();
+        if (required > reading.capacity()) {
+            var grown = ByteBuffer.allocateDirect(required);
+            grown.put(reading.flip());
+            reading = grown;
+        }
+    }
+
+    void fail(Throwable cause) {
+        lock.lock();
+        try {
+            closed = true;
+            var failure = cause instanceof CacheClientException ? cause : new CacheClientException("Connection failed", cause);
+            for (var reply = inflight.poll(); reply != null; reply = inflight.poll()) {
+                reply.fail(failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (nearCache != null) {
+            nearCache.clear();
+        }
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            // the connection is being dropped anyway
+        }
+    }
+
+    // INVALIDATE, key length, key
+    private void invalidate(int payloadStart) {
+        if (nearCache != null) {
+            var key = new byte[reading.getInt(payloadStart + 1)];
+            reading.get(payloadStart + 1 + Integer.BYTES, key);
+            nearCache.invalidate(key);
+        }
+    }
+
+    // INVALIDATE_BUCKET, bucket, bucket mask
+    private void invalidateBucket(int payloadStart) {
+        if (nearCache != null) {
+            nearCache.invalidateBucket(
+                    reading.getInt(payloadStart + 1),
+                    reading.getInt(payloadStart + 1 + Integer.BYTES));
+        }
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (pending.remaining() < bytes) {
+            var grown = ByteBuffer.allocateDirect(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            grown.put(pending.flip());
+            pending = grown;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package cachevg.client;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.Selector;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// one selector thread reads replies and writes requests for every connection of a client
+final class ClientEventLoop {
+    private final Selector selector;
+    private final Queue<ClientConnection> registrations = new ConcurrentLinkedQueue<>();
+    private final Queue<ClientConnection> flushes = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    ClientEventLoop(String name) {
+        try {
+            this.selector = Selector.open();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        this.thread = Thread.ofPlatform().name(name).daemon().start(this::run);
+    }
+
+    void register(ClientConnection connection) {
+        registrations.add(connection);
+        selector.wakeup();
+    }
+
+    // a connection is queued at most once until its buffers are written out, so under load
+    // many requests share one wakeup
+    void flushLater(ClientConnection connection) {
+        flushes.add(connection);
+        selector.wakeup();
+    }
+
+    void close() throws InterruptedException {
+        running = false;
+        selector.wakeup();
+        thread.join();
+    }
+
+    private void run() {
+        try (selector) {
+            while (running) {
+                selector.select();
+                for (var connection = registrations.poll(); connection != null; connection = registrations.poll()) {
+                    try {
+                        connection.register(selector);
+                    } catch (ClosedChannelException ex) {
+                        connection.fail(ex);
+                    }
+                }
+                for (var connection = flushes.poll(); connection != null; connection = flushes.poll()) {
+                    try {
+                        connection.flush();
+                    } catch (IOException ex) {
+                        connection.fail(ex);
+                    }
+                }
+                var keys = selector.selectedKeys();
+                for (var key : keys) {
+                    var connection = (ClientConnection) key.attachment();
+                    try {
+                        if (key.isValid() && key.isReadable()) {
+                            connection.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.flush();
+                        }
+                    } catch (IOException ex) {
+                        connection.fail(ex);
+                    }
+                }
+                keys.clear();
+            }
+            for (var key : selector.keys()) {
+                ((ClientConnection) key.attachment()).fail(new CacheClientException("Client is closed"));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
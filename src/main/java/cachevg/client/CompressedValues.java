@@ -0,0 +1,30 @@
+package cachevg.client;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// the payload of a COMPRESSED_VALUE reply: its length:int, then the original length:int and the zlib stream.
+// Replies are decoded on the event loop thread, so one inflater serves all of them
+final class CompressedValues {
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    private CompressedValues() {
+    }
+
+    static byte[] inflate(ByteBuffer payload) {
+        var stored = payload.getInt();
+        var content = new byte[payload.getInt()];
+        var inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setInput(payload.slice(payload.position(), stored - Integer.BYTES));
+        try {
+            if (inflater.inflate(content) != content.length || !inflater.finished()) {
+                throw new CacheClientException("Compressed value does not inflate to its length");
+            }
+        } catch (DataFormatException ex) {
+            throw new CacheClientException("Corrupted compressed value", ex);
+        }
+        return content;
+    }
+}
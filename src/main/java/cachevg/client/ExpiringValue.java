@@ -0,0 +1,6 @@
+package cachevg.client;
+
+// a value read on a tracking connection with the milliseconds it had left on the server, NO_TTL when it has no TTL
+record ExpiringValue(byte[] value, long ttlMillis) {
+    static final long NO_TTL = -1;
+}
@@ -0,0 +1,95 @@
+package cachevg.client;
+
+import cachevg.storage.Key;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// values read over tracking connections, kept until the server pushes an invalidation for their key or for the
+// bucket the server tracks it in. A read is only cached when no invalidation for its key arrived while it was in
+// flight, since its value may predate the write. A value with a TTL is also dropped when the TTL is up, counted
+// from when the read was sent so that it never outlives the server's copy. Lookups take no lock; when full, an
+// arbitrary entry makes room
+final class NearCache {
+    private final int maxEntries;
+    private final Map<ByteBuffer, Entry> values = new ConcurrentHashMap<>();
+    private final Map<ByteBuffer, ReadToken> pendingReads = new HashMap<>();
+
+    NearCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    byte[] get(byte[] key) {
+        var wrapped = ByteBuffer.wrap(key);
+        var entry = values.get(wrapped);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            values.remove(wrapped, entry);
+            return null;
+        }
+        return entry.value.clone();
+    }
+
+    synchronized Object beginRead(byte[] key) {
+        var token = new ReadToken(System.nanoTime());
+        pendingReads.put(ByteBuffer.wrap(key), token);
+        return token;
+    }
+
+    // missing keys are not cached
+    synchronized void completeRead(byte[] key, Object token, ExpiringValue reply) {
+        var wrapped = ByteBuffer.wrap(key);
+        if (!pendingReads.remove(wrapped, token) || reply == null || reply.value() == null || reply.ttlMillis() == 0) {
+            return;
+        }
+        if (values.size() >= maxEntries && !values.containsKey(wrapped)) {
+            var victims = values.keySet().iterator();
+            victims.next();
+            victims.remove();
+        }
+        var expires = reply.ttlMillis() != ExpiringValue.NO_TTL;
+        var deadline = expires ? ((ReadToken) token).sentAt + TimeUnit.MILLISECONDS.toNanos(reply.ttlMillis()) : 0;
+        values.put(wrapped, new Entry(reply.value().clone(), Key.hash(key), expires, deadline));
+    }
+
+    synchronized void invalidate(byte[] key) {
+        var wrapped = ByteBuffer.wrap(key);
+        values.remove(wrapped);
+        pendingReads.remove(wrapped);
+    }
+
+    // a bucket invalidation clears the server's record of the reads from it, so every key there must go,
+    // whether or not it is the one written
+    synchronized void invalidateBucket(int bucket, int bucketMask) {
+        values.entrySet().removeIf(entry -> (entry.getValue().hash & bucketMask) == bucket);
+        pendingReads.keySet().removeIf(key -> (Key.hash(key.array()) & bucketMask) == bucket);
+    }
+
+    // a lost connection takes its tracking with it, so nothing cached can be trusted any more
+    synchronized void clear() {
+        values.clear();
+        pendingReads.clear();
+    }
+
+    // deadline is a System.nanoTime() reading
+    // hash is Key.hash of the key, kept to match it against invalidated buckets
+    private record Entry(byte[] value, int hash, boolean expires, long deadline) {
+        boolean isExpired(long now) {
+            return expires && now - deadline >= 0;
+        }
+    }
+
+    // compared by identity, a newer read of the same key replaces the token of the older one
+    private static final class ReadToken {
+        private final long sentAt;
+
+        private ReadToken(long sentAt) {
+            this.sentAt = sentAt;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package cachevg.client;
+
+import cachevg.command.ReplyCodes;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+record PendingReply<T>(CompletableFuture<T> future, ReplyDecoder<T> decoder) {
+
+    void complete(ByteBuffer payload) {
+        try {
+            if (payload.hasRemaining() && payload.get(0) == ReplyCodes.ERROR) {
+                var message = new byte[payload.getInt(1)];
+                payload.get(1 + Integer.BYTES, message);
+                future.completeExceptionally(new CacheClientException(new String(message, StandardCharsets.UTF_8)));
+            } else {
+                future.complete(decoder.decode(payload));
+            }
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+    }
+
+    void fail(Throwable cause) {
+        future.completeExceptionally(cause);
+    }
+}
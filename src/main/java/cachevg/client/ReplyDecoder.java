@@ -0,0 +1,78 @@
+package cachevg.client;
+
+import cachevg.command.ReplyCodes;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// turns the payload of a binary reply, reply code first, into the result of a request
+@FunctionalInterface
+interface ReplyDecoder<T> {
+    ReplyDecoder<byte[]> VALUE = ReplyDecoder::value;
+
+    // the time left of a value with a TTL, sent on tracking connections only
+    ReplyDecoder<ExpiringValue> EXPIRING_VALUE = payload -> {
+        var ttlMillis = ExpiringValue.NO_TTL;
+        if (payload.get(payload.position()) == ReplyCodes.EXPIRES_IN) {
+            payload.get();
+            ttlMillis = payload.getLong();
+        }
+        return new ExpiringValue(value(payload), ttlMillis);
+    };
+
+    ReplyDecoder<Void> OK = payload -> {
+        if (payload.get() != ReplyCodes.OK) {
+            throw unexpected(payload);
+        }
+        return null;
+    };
+
+    ReplyDecoder<Long> INTEGER = payload -> {
+        if (payload.get() != ReplyCodes.INTEGER) {
+            throw unexpected(payload);
+        }
+        return payload.getLong();
+    };
+
+    // missing elements are null
+    ReplyDecoder<List<byte[]>> ARRAY = payload -> {
+        if (payload.get() != ReplyCodes.ARRAY) {
+            throw unexpected(payload);
+        }
+        var elements = new ArrayList<byte[]>(payload.getInt());
+        while (payload.hasRemaining()) {
+            elements.add(bytes(payload));
+        }
+        return elements;
+    };
+
+    T decode(ByteBuffer payload);
+
+    private static byte[] value(ByteBuffer payload) {
+        return switch (payload.get()) {
+            case ReplyCodes.VALUE -> bytes(payload);
+            case ReplyCodes.COMPRESSED_VALUE -> CompressedValues.inflate(payload);
+            case ReplyCodes.NIL -> null;
+            case ReplyCodes.EXPIRES_IN -> {
+                payload.getLong();
+                yield value(payload);
+            }
+            default -> throw unexpected(payload);
+        };
+    }
+
+    private static byte[] bytes(ByteBuffer payload) {
+        var length = payload.getInt();
+        if (length < 0) {
+            return null;
+        }
+        var bytes = new byte[length];
+        payload.get(bytes);
+        return bytes;
+    }
+
+    private static CacheClientException unexpected(ByteBuffer payload) {
+        return new CacheClientException("Unexpected reply code " + payload.get(0));
+    }
+}
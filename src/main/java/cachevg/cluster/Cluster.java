@@ -0,0 +1,218 @@
+package cachevg.cluster;
+
+import cachevg.command.Replies;
+import cachevg.metrics.Meter;
+import cachevg.metrics.Metrics;
+import cachevg.persistence.RecordReader;
+import cachevg.storage.Storage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// this node's view of which node owns every hash slot. Writes run under the read lock of their slots' stripes,
+// so freezing slots for the handoff at the end of a migration waits for the writes already running on them
+public class Cluster {
+    private static final Logger log = LogManager.getLogger(Cluster.class);
+    private static final int LOCK_STRIPES = Long.SIZE;
+
+    private final ClusterNode self;
+    private final Storage storage;
+    private final int migrationBatchBytes;
+    private final AtomicReferenceArray<ClusterNode> owners = new AtomicReferenceArray<>(HashSlots.SLOTS);
+    private final AtomicIntegerArray frozen = new AtomicIntegerArray(HashSlots.SLOTS);
+    private final ReadWriteLock[] stripes = new ReadWriteLock[LOCK_STRIPES];
+    private final AtomicBoolean migrating = new AtomicBoolean();
+    private final Meter redirects;
+    private final Meter migratedEntries;
+    private volatile int ownedSlots;
+
+    // every entry is host:port, optionally followed by the slot ranges of the node, e.g. "10.0.0.1:8090 0-8191";
+    // when no entry lists ranges the slots are split evenly between the nodes in the listed order
+    public Cluster(ClusterNode self, List<String> nodes, Storage storage, int migrationBatchBytes, Metrics metrics) {
+        this.self = self;
+        this.storage = storage;
+        this.migrationBatchBytes = migrationBatchBytes;
+        for (var idx = 0; idx < LOCK_STRIPES; idx++) {
+            stripes[idx] = new ReentrantReadWriteLock();
+        }
+        assignAll(nodes);
+        this.redirects = metrics.meter("cluster.redirects");
+        this.migratedEntries = metrics.meter("cluster.migrated_entries");
+        metrics.gauge("cluster.slots_owned", () -> ownedSlots);
+        log.info("Cluster node {} owns {} slots", self, ownedSlots);
+    }
+
+    // the records of a batch travel in one IMPORT frame, which the target's parser takes up to its message size
+    public static int maxMigrationBatchBytes(int maxMessageSize) {
+        return maxMessageSize - SlotMigration.IMPORT_OVERHEAD;
+    }
+
+    public ClusterNode self() {
+        return self;
+    }
+
+    public boolean owns(int slot) {
+        return self.equals(owners.get(slot));
+    }
+
+    public boolean ownsAll(SlotRange range) {
+        for (var slot = range.from(); slot <= range.to(); slot++) {
+            if (!owns(slot)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the error a command on a key of the slot gets instead of running, or null when it can run here
+    public String refusal(int slot, boolean write) {
+        if (owns(slot)) {
+            return write && frozen.get(slot) != 0 ? Replies.TRY_AGAIN : null;
+        }
+        var owner = owners.get(slot);
+        if (owner == null) {
+            return Replies.SLOT_NOT_SERVED;
+        }
+        redirects.mark(1);
+        return Replies.moved(slot, owner.toString());
+    }
+
+    public void assign(SlotRange range, ClusterNode node) {
+        setOwner(range, node);
+    }
+
+    // contiguous runs of slots with the same owner as "from-to host:port"
+    public List<String> describe() {
+        var runs = new ArrayList<String>();
+        var start = 0;
+        for (var slot = 1; slot <= HashSlots.SLOTS; slot++) {
+            var owner = owners.get(start);
+            if (slot == HashSlots.SLOTS || owners.get(slot) != owner) {
+                if (owner != null) {
+                    runs.add(new SlotRange(start, slot - 1) + " " + owner);
+                }
+                start = slot;
+            }
+        }
+        return runs;
+    }
+
+    // locks the stripes of the slots in ascending order and returns them as a mask for unlockWrites
+    public long lockWrites(int[] slots) {
+        var mask = 0L;
+        for (var slot : slots) {
+            mask |= 1L << (slot & (LOCK_STRIPES - 1));
+        }
+        for (var remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            stripes[Long.numberOfTrailingZeros(remaining)].readLock().lock();
+        }
+        return mask;
+    }
+
+    public void unlockWrites(long mask) {
+        for (var remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            stripes[Long.numberOfTrailingZeros(remaining)].readLock().unlock();
+        }
+    }
+
+    // applies a batch of records sent by a migrating node; returns the number of records
+    public int importRecords(byte[] records) throws IOException {
+        var input = new DataInputStream(new ByteArrayInputStream(records));
+        var now = System.currentTimeMillis();
+        var count = 0;
+        for (var op = input.read(); op != -1; op = input.read()) {
+            RecordReader.apply(op, input, storage, now);
+            count++;
+        }
+        return count;
+    }
+
+    // starts moving the slots to the target in the background; false when another migration is running
+    public boolean migrate(SlotRange range, ClusterNode target) {
+        if (!migrating.compareAndSet(false, true)) {
+            return false;
+        }
+        var migration = new SlotMigration(this, storage, range, target, migrationBatchBytes, migratedEntries);
+        Thread.ofPlatform().name("slot-migration").daemon().start(() -> {
+            try {
+                migration.run();
+            } finally {
+                migrating.set(false);
+            }
+        });
+        return true;
+    }
+
+    void freeze(SlotRange range) {
+        setFrozen(range, 1);
+    }
+
+    void unfreeze(SlotRange range) {
+        setFrozen(range, 0);
+    }
+
+    // taking the write locks waits out the writes that passed the check before the flag was set
+    private void setFrozen(SlotRange range, int value) {
+        var mask = 0L;
+        for (var slot = range.from(); slot <= range.to() && mask != -1L; slot++) {
+            mask |= 1L << (slot & (LOCK_STRIPES - 1));
+        }
+        for (var remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            stripes[Long.numberOfTrailingZeros(remaining)].writeLock().lock();
+        }
+        try {
+            for (var slot = range.from(); slot <= range.to(); slot++) {
+                frozen.set(slot, value);
+            }
+        } finally {
+            for (var remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                stripes[Long.numberOfTrailingZeros(remaining)].writeLock().unlock();
+            }
+        }
+    }
+
+    private void assignAll(List<String> nodes) {
+        var explicit = nodes.stream().anyMatch(node -> node.trim().contains(" "));
+        for (var idx = 0; idx < nodes.size(); idx++) {
+            var parts = nodes.get(idx).trim().split("\\s+", 2);
+            var node = ClusterNode.parse(parts[0]);
+            if (!explicit) {
+                var from = (int) ((long) HashSlots.SLOTS * idx / nodes.size());
+                var to = (int) ((long) HashSlots.SLOTS * (idx + 1) / nodes.size()) - 1;
+                setOwner(new SlotRange(from, to), node);
+            } else if (parts.length > 1) {
+                for (var range : parts[1].split(",")) {
+                    setOwner(SlotRange.parse(range.trim()), node);
+                }
+            }
+        }
+    }
+
+    private synchronized void setOwner(SlotRange range, ClusterNode node) {
+        for (var slot = range.from(); slot <= range.to(); slot++) {
+            owners.set(slot, node);
+        }
+        ownedSlots = countOwnedSlots();
+        log.info("Slots {} assigned to {}", range, node);
+    }
+
+    private int countOwnedSlots() {
+        var owned = 0;
+        for (var slot = 0; slot < HashSlots.SLOTS; slot++) {
+            if (self.equals(owners.get(slot))) {
+                owned++;
+            }
+        }
+        return owned;
+    }
+}
@@ -0,0 +1,22 @@
+package cachevg.cluster;
+
+// a node as clients reach it, host and client port
+public record ClusterNode(String host, int port) {
+
+    public static ClusterNode parse(String address) {
+        var separator = address.lastIndexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Not a host:port address: " + address);
+        }
+        try {
+            return new ClusterNode(address.substring(0, separator), Integer.parseInt(address.substring(separator + 1)));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Not a host:port address: " + address);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return host + ":" + port;
+    }
+}
@@ -0,0 +1,54 @@
+package cachevg.cluster;
+
+import java.nio.ByteBuffer;
+
+// CRC16 (XMODEM) of the key modulo the slot count, as in Redis Cluster. When the key has a non-empty {tag},
+// only the tag is hashed, so keys sharing a tag land in one slot and can be used together by multi-key commands
+public final class HashSlots {
+    public static final int SLOTS = 16384;
+    private static final int[] CRC16_TABLE = crc16Table();
+
+    private HashSlots() {
+    }
+
+    public static int slot(byte[] key) {
+        return slot(ByteBuffer.wrap(key), 0, key.length);
+    }
+
+    public static int slot(ByteBuffer buffer, int offset, int length) {
+        var end = offset + length;
+        var from = offset;
+        var to = end;
+        for (var open = offset; open < end; open++) {
+            if (buffer.get(open) == '{') {
+                for (var close = open + 1; close < end; close++) {
+                    if (buffer.get(close) == '}') {
+                        if (close > open + 1) {
+                            from = open + 1;
+                            to = close;
+                        }
+                        break;
+                    }
+                }
+                break;
+            }
+        }
+        var crc = 0;
+        for (var idx = from; idx < to; idx++) {
+            crc = ((crc << 8) ^ CRC16_TABLE[((crc >>> 8) ^ buffer.get(idx)) & 0xFF]) & 0xFFFF;
+        }
+        return crc & (SLOTS - 1);
+    }
+
+    private static int[] crc16Table() {
+        var table = new int[256];
+        for (var value = 0; value < table.length; value++) {
+            var crc = value << 8;
+            for (var bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+            table[value] = crc & 0xFFFF;
+        }
+        return table;
+    }
+}
@@ -0,0 +1,276 @@
+package cachevg.cluster;
+
+import cachevg.command.CommandNames;
+import cachevg.command.Opcodes;
+import cachevg.command.ReplyCodes;
+import cachevg.metrics.Meter;
+import cachevg.parser.MessageParser;
+import cachevg.persistence.RecordBuffer;
+import cachevg.storage.Key;
+import cachevg.storage.MutationListener;
+import cachevg.storage.Storage;
+import cachevg.storage.Value;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// copies the keys of a slot range to the target in batches while this node keeps serving them, and sends the
+// mutations made in the meantime after every batch. Only the last of those and the ownership change happen with
+// the range frozen, so writes to it are refused for that short window and reads are never held up.
+// Every IMPORT carries at most batchBytes of records; a single record larger than that fails the migration
+// and the slots stay here
+final class SlotMigration implements MutationListener {
+    private static final Logger log = LogManager.getLogger(SlotMigration.class);
+    private static final int SCAN_COUNT = 1000;
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int READ_TIMEOUT_MS = 30000;
+    private static final byte[] IMPORT = CommandNames.IMPORT.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SETSLOT = CommandNames.SETSLOT.getBytes(StandardCharsets.US_ASCII);
+    // opcode, argument length, IMPORT, records length
+    static final int IMPORT_OVERHEAD = 1 + Integer.BYTES + IMPORT.length + Integer.BYTES;
+
+    private final Cluster cluster;
+    private final Storage storage;
+    private final SlotRange range;
+    private final ClusterNode target;
+    private final int batchBytes;
+    private final Meter migratedEntries;
+    private final Lock capturedLock = new ReentrantLock();
+    private List<RecordBuffer> captured = new ArrayList<>();
+    private Key oversized;
+    private int oversizedBytes;
+    private DataInputStream input;
+    private DataOutputStream output;
+
+    SlotMigration(Cluster cluster, Storage storage, SlotRange range, ClusterNode target, int batchBytes, Meter migratedEntries) {
+        this.cluster = cluster;
+        this.storage = storage;
+        this.range = range;
+        this.target = target;
+        this.batchBytes = batchBytes;
+        this.migratedEntries = migratedEntries;
+    }
+
+    @Override
+    public void onPut(Key key, Value value) {
+        if (range.contains(HashSlots.slot(key.getBytes()))) {
+            capturedLock.lock();
+            try {
+                var chunk = captureChunk(key, RecordBuffer.putBytes(key, value));
+                if (chunk != null) {
+                    chunk.put(key, value);
+                }
+            } finally {
+                capturedLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void onRemove(Key key) {
+        if (range.contains(HashSlots.slot(key.getBytes()))) {
+            capturedLock.lock();
+            try {
+                var chunk = captureChunk(key, RecordBuffer.removeBytes(key));
+                if (chunk != null) {
+                    chunk.remove(key);
+                }
+            } finally {
+                capturedLock.unlock();
+            }
+        }
+    }
+
+    // the chunk the next record of the given size goes to, null when it can't be migrated at all
+    private RecordBuffer captureChunk(Key key, int bytes) {
+        if (bytes > batchBytes) {
+            if (oversized == null) {
+                oversized = key;
+                oversizedBytes = bytes;
+            }
+            return null;
+        }
+        var chunk = captured.isEmpty() ? null : captured.getLast();
+        if (chunk == null || chunk.size() + bytes > batchBytes) {
+            chunk = new RecordBuffer();
+            captured.add(chunk);
+        }
+        return chunk;
+    }
+
+    void run() {
+        var start = System.nanoTime();
+        log.info("Migrating slots {} to {}", range, target);
+        storage.addMutationListener(this);
+        var entries = 0L;
+        var handedOff = false;
+        try (var socket = new Socket()) {
+            socket.connect(new InetSocketAddress(target.host(), target.port()), CONNECT_TIMEOUT_MS);
+            socket.setSoTimeout(READ_TIMEOUT_MS);
+            socket.setTcpNoDelay(true);
+            input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            entries = copyKeys();
+            sendCaptured();
+            cluster.freeze(range);
+            try {
+                sendCaptured();
+                call(SETSLOT, range.toString().getBytes(StandardCharsets.US_ASCII), target.toString().getBytes(StandardCharsets.US_ASCII));
+                cluster.assign(range, target);
+                handedOff = true;
+            } finally {
+                cluster.unfreeze(range);
+            }
+        } catch (IOException ex) {
+            log.error("Migration of slots {} to {} failed, the slots stay here", range, target, ex);
+        } finally {
+            storage.removeMutationListener(this);
+        }
+        if (handedOff) {
+            var removed = removeMigratedKeys();
+            log.info(
+                    "Slots {} migrated to {}, entries:{}, removed here:{}, took ms:{}",
+                    range,
+                    target,
+                    entries,
+                    removed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    // values are read one by one, so a key mutated after being copied is fixed up by the captured mutations
+    private long copyKeys() throws IOException {
+        var batch = new RecordBuffer();
+        var keys = new ArrayList<Key>();
+        var entries = 0L;
+        var cursor = 0L;
+        do {
+            cursor = storage.scan(cursor, SCAN_COUNT, key -> {
+                if (range.contains(HashSlots.slot(key.getBytes()))) {
+                    keys.add(key);
+                }
+            });
+            for (var key : keys) {
+                var value = storage.get(key);
+                if (value == null) {
+                    continue;
+                }
+                var bytes = RecordBuffer.putBytes(key, value);
+                if (bytes > batchBytes) {
+                    throw tooLarge(key, bytes);
+                }
+                if (batch.size() + bytes > batchBytes) {
+                    importRecords(batch);
+                    sendCaptured();
+                }
+                batch.put(key, value);
+                entries++;
+            }
+            keys.clear();
+        } while (cursor != 0);
+        importRecords(batch);
+        migratedEntries.mark(entries);
+        return entries;
+    }
+
+    private void sendCaptured() throws IOException {
+        List<RecordBuffer> sending;
+        capturedLock.lock();
+        try {
+            if (oversized != null) {
+                throw tooLarge(oversized, oversizedBytes);
+            }
+            sending = captured;
+            captured = new ArrayList<>();
+        } finally {
+            capturedLock.unlock();
+        }
+        for (var chunk : sending) {
+            importRecords(chunk);
+        }
+    }
+
+    private IOException tooLarge(Key key, int bytes) {
+        return new IOException("Key " + key + " is too large to migrate, record bytes:" + bytes + ", batch bytes:" + batchBytes);
+    }
+
+    private long removeMigratedKeys() {
+        var keys = new ArrayList<Key>();
+        var removed = 0L;
+        var cursor = 0L;
+        do {
+            cursor = storage.scan(cursor, SCAN_COUNT, key -> {
+                if (range.contains(HashSlots.slot(key.getBytes()))) {
+                    keys.add(key);
+                }
+            });
+            removed += storage.removeAll(keys.toArray(new Key[0]));
+            keys.clear();
+        } while (cursor != 0);
+        return removed;
+    }
+
+    private void importRecords(RecordBuffer records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        beginCommand(Integer.BYTES + IMPORT.length + Integer.BYTES + records.size());
+        output.writeInt(IMPORT.length);
+        output.write(IMPORT);
+        output.writeInt(records.size());
+        records.writeTo(output);
+        endCommand();
+    }
+
+    private void call(byte[]... arguments) throws IOException {
+        var length = 0;
+        for (var argument : arguments) {
+            length += Integer.BYTES + argument.length;
+        }
+        beginCommand(length);
+        for (var argument : arguments) {
+            output.writeInt(argument.length);
+            output.write(argument);
+        }
+        endCommand();
+    }
+
+    private void beginCommand(int argumentsLength) throws IOException {
+        output.writeByte(MessageParser.HEADER);
+        output.writeInt(1 + argumentsLength);
+        output.writeByte(MessageParser.BEGIN_MESSAGE);
+        output.writeByte(Opcodes.CLUSTER);
+    }
+
+    // commands go one at a time, so the target's replies pace the batches
+    private void endCommand() throws IOException {
+        output.writeByte(MessageParser.END_MESSAGE);
+        output.flush();
+        if (input.readByte() != MessageParser.HEADER) {
+            throw new IOException("Malformed reply from " + target);
+        }
+        var reply = new byte[input.readInt()];
+        input.readByte();
+        input.readFully(reply);
+        input.readByte();
+        if (reply.length == 0 || reply[0] != ReplyCodes.OK) {
+            var error = reply.length > 1 + Integer.BYTES
+                    ? new String(reply, 1 + Integer.BYTES, reply.length - 1 - Integer.BYTES, StandardCharsets.UTF_8)
+                    : "unexpected reply";
+            throw new IOException(target + " refused the migration: " + error);
+        }
+    }
+}
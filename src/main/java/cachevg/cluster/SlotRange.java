@@ -0,0 +1,31 @@
+package cachevg.cluster;
+
+// inclusive at both ends, written as from-to or as a single slot
+public record SlotRange(int from, int to) {
+
+    public SlotRange {
+        if (from < 0 || to >= HashSlots.SLOTS || from > to) {
+            throw new IllegalArgumentException("Invalid slot range " + from + "-" + to);
+        }
+    }
+
+    public static SlotRange parse(String range) {
+        var separator = range.indexOf('-');
+        try {
+            return separator < 0
+                    ? new SlotRange(Integer.parseInt(range), Integer.parseInt(range))
+                    : new SlotRange(Integer.parseInt(range.substring(0, separator)), Integer.parseInt(range.substring(separator + 1)));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid slot range " + range);
+        }
+    }
+
+    public boolean contains(int slot) {
+        return slot >= from && slot <= to;
+    }
+
+    @Override
+    public String toString() {
+        return from == to ? Integer.toString(from) : from + "-" + to;
+    }
+}
@@ -6,5 +6,40 @@ public abstract class CommandNames {
     public static final String PING = "PING";
     public static final String KEYS = "KEYS";
     public static final String GET = "GET";
+    public static final String TTL = "TTL";
+    public static final String MGET = "MGET";
+    public static final String MPUT = "MPUT";
+    public static final String MREMOVE = "MREMOVE";
+    public static final String INFO = "INFO";
+    public static final String STATS = "STATS";
+    public static final String SNAPSHOT = "SNAPSHOT";
+    public static final String INCR = "INCR";
+    public static final String DECR = "DECR";
+    public static final String INCRBY = "INCRBY";
+    public static final String HSET = "HSET";
+    public static final String HGET = "HGET";
+    public static final String HDEL = "HDEL";
+    public static final String HLEN = "HLEN";
+    public static final String HGETALL = "HGETALL";
+    public static final String LPUSH = "LPUSH";
+    public static final String RPUSH = "RPUSH";
+    public static final String LPOP = "LPOP";
+    public static final String RPOP = "RPOP";
+    public static final String LLEN = "LLEN";
+    public static final String LRANGE = "LRANGE";
+    public static final String SCAN = "SCAN";
+    public static final String MATCH = "MATCH";
+    public static final String COUNT = "COUNT";
+    public static final String EX = "EX";
+    public static final String CLUSTER = "CLUSTER";
+    public static final String SLOTS = "SLOTS";
+    public static final String SETSLOT = "SETSLOT";
+    public static final String MIGRATE = "MIGRATE";
+    public static final String IMPORT = "IMPORT";
+    public static final String CLIENT = "CLIENT";
+    public static final String COMPRESSION = "COMPRESSION";
+    public static final String TRACKING = "TRACKING";
+    public static final String ON = "ON";
+    public static final String OFF = "OFF";
 
 }
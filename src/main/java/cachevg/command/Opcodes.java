@@ -0,0 +1,45 @@
+package cachevg.command;
+
+import java.nio.ByteBuffer;
+
+public abstract class Opcodes {
+    public static final byte PING = 0x01;
+    public static final byte GET = 0x02;
+    public static final byte PUT = 0x03;
+    public static final byte REMOVE = 0x04;
+    public static final byte TTL = 0x05;
+    public static final byte KEYS = 0x06;
+    public static final byte MGET = 0x07;
+    public static final byte MPUT = 0x08;
+    public static final byte MREMOVE = 0x09;
+    public static final byte INFO = 0x0A;
+    public static final byte SNAPSHOT = 0x0B;
+    public static final byte INCR = 0x0C;
+    public static final byte DECR = 0x0D;
+    public static final byte INCRBY = 0x0E;
+    public static final byte HSET = 0x0F;
+    public static final byte HGET = 0x10;
+    public static final byte HDEL = 0x11;
+    public static final byte HLEN = 0x12;
+    public static final byte HGETALL = 0x13;
+    public static final byte LPUSH = 0x14;
+    public static final byte RPUSH = 0x15;
+    public static final byte LPOP = 0x16;
+    public static final byte RPOP = 0x17;
+    public static final byte LLEN = 0x18;
+    public static final byte LRANGE = 0x19;
+    public static final byte SCAN = 0x1A;
+    public static final byte CLUSTER = 0x1B;
+    public static final byte CLIENT = 0x1C;
+
+    // text commands always start with a printable character, so control bytes are free to mark binary commands
+    public static final byte FIRST_TEXT_BYTE = 0x20;
+
+    public static boolean isBinary(ByteBuffer buffer, int offset, int length) {
+        if (length == 0) {
+            return false;
+        }
+        var first = buffer.get(offset);
+        return first >= 0 && first < FIRST_TEXT_BYTE;
+    }
+}
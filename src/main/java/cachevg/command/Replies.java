@@ -0,0 +1,45 @@
+package cachevg.command;
+
+import cachevg.types.Type;
+
+public abstract class Replies {
+    public static final String OK = "OK";
+    public static final String PONG = "PONG";
+    public static final String NIL = "(nil)";
+
+    public static final String INVALID_EXPIRE_TIME = "Invalid expire time";
+    public static final String MALFORMED_COMMAND = "Malformed command";
+    public static final String SNAPSHOT_IN_PROGRESS = "Snapshot already in progress";
+    public static final String NOT_AN_INTEGER = "Value is not an integer";
+    public static final String OVERFLOW = "Increment or decrement would overflow";
+    public static final String INVALID_CURSOR = "Invalid cursor";
+    public static final String INVALID_COUNT = "COUNT must be positive";
+    public static final String READ_ONLY_REPLICA = "Writes are not accepted by a replica";
+    public static final String TRY_AGAIN = "TRYAGAIN Slot is being migrated";
+    public static final String SLOT_NOT_SERVED = "CLUSTERDOWN Hash slot not served";
+    public static final String SLOTS_NOT_OWNED = "Slots are not owned by this node";
+    public static final String MIGRATION_IN_PROGRESS = "Migration already in progress";
+    public static final String IMPORT_IS_BINARY = "IMPORT takes binary records";
+    public static final String CLIENT_IS_BINARY = "CLIENT settings apply to binary connections";
+    public static final String TRACKING_DISABLED = "Tracking is not enabled on this server";
+    public static final String TRACKING_TABLE_FULL = "Too many tracking connections";
+
+    public static String wrongArguments(String command) {
+        return "Wrong number of arguments for command " + command;
+    }
+
+    // compression is not visible to clients, so a compressed string is reported as a string
+    public static String wrongType(Type actual) {
+        var type = actual == Type.COMPRESSED_STRING ? Type.STRING : actual;
+        return "Operation against a key holding a " + type + " value";
+    }
+
+    // clients retry the command on the node that owns the slot
+    public static String moved(int slot, String node) {
+        return "MOVED " + slot + " " + node;
+    }
+
+    public static String unknownCommand(String command) {
+        return "Command " + command + " is not supported";
+    }
+}
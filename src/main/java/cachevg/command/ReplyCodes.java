@@ -0,0 +1,19 @@
+package cachevg.command;
+
+public abstract class ReplyCodes {
+    public static final byte OK = 0x01;
+    public static final byte VALUE = 0x02;
+    public static final byte NIL = 0x03;
+    public static final byte INTEGER = 0x04;
+    public static final byte ARRAY = 0x05;
+    public static final byte ERROR = 0x06;
+    // a value as stored by the server, sent to clients that asked for compressed values
+    public static final byte COMPRESSED_VALUE = 0x07;
+    // pushed to tracking connections outside the request order, with the key that changed
+    public static final byte INVALIDATE = 0x08;
+    // sent to tracking connections ahead of a value with a TTL: the milliseconds it has left, as a long
+    public static final byte EXPIRES_IN = 0x09;
+    // pushed to connections tracking their reads, with a bucket:int and a bucket mask:int: every key k with
+    // Key.hash(k) & mask == bucket may have changed
+    public static final byte INVALIDATE_BUCKET = 0x0A;
+}
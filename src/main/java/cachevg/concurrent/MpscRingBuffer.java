@@ -0,0 +1,26 @@
+package cachevg.concurrent;
+
+public final class MpscRingBuffer<E> extends RingBuffer<E> {
+
+    public MpscRingBuffer(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public boolean offer(E element) {
+        long index;
+        do {
+            index = producerIndex;
+            // the cached limit is only a hint shared by racing producers, a stale value just costs a re-read
+            if (index >= producerLimit) {
+                var limit = (long) CONSUMER_INDEX.getAcquire(this) + elements.length;
+                if (index >= limit) {
+                    return false;
+                }
+                producerLimit = limit;
+            }
+        } while (!PRODUCER_INDEX.compareAndSet(this, index, index + 1));
+        ELEMENTS.setRelease(elements, (int) index & mask, element);
+        return true;
+    }
+}
@@ -0,0 +1,111 @@
+package cachevg.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.Consumer;
+
+// the producer and consumer indexes sit on their own cache lines, separated by the padding classes below;
+// superclass fields are laid out first, which is what keeps them apart
+abstract class LeftPadding {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class ProducerFields extends LeftPadding {
+    static final VarHandle PRODUCER_INDEX;
+
+    static {
+        try {
+            PRODUCER_INDEX = MethodHandles.lookup().findVarHandle(ProducerFields.class, "producerIndex", long.class);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    volatile long producerIndex;
+    long producerLimit;
+}
+
+abstract class MiddlePadding extends ProducerFields {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+    long p30, p31, p32, p33, p34, p35, p36, p37;
+}
+
+abstract class ConsumerFields extends MiddlePadding {
+    static final VarHandle CONSUMER_INDEX;
+
+    static {
+        try {
+            CONSUMER_INDEX = MethodHandles.lookup().findVarHandle(ConsumerFields.class, "consumerIndex", long.class);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    volatile long consumerIndex;
+}
+
+abstract class RightPadding extends ConsumerFields {
+    long p40, p41, p42, p43, p44, p45, p46, p47;
+    long p50, p51, p52, p53, p54, p55, p56, p57;
+}
+
+public abstract class RingBuffer<E> extends RightPadding {
+    static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    final Object[] elements;
+    final int mask;
+
+    RingBuffer(int capacity) {
+        var size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.elements = new Object[size];
+        this.mask = size - 1;
+        this.producerLimit = size;
+    }
+
+    public abstract boolean offer(E element);
+
+    public E poll() {
+        var index = (long) CONSUMER_INDEX.getOpaque(this);
+        var offset = (int) index & mask;
+        @SuppressWarnings("unchecked")
+        var element = (E) ELEMENTS.getAcquire(elements, offset);
+        if (element == null) {
+            if (index == producerIndex) {
+                return null;
+            }
+            // a producer has claimed the slot but not yet published into it
+            do {
+                Thread.onSpinWait();
+                element = (E) ELEMENTS.getAcquire(elements, offset);
+            } while (element == null);
+        }
+        ELEMENTS.setOpaque(elements, offset, null);
+        CONSUMER_INDEX.setRelease(this, index + 1);
+        return element;
+    }
+
+    public int drain(Consumer<? super E> consumer, int limit) {
+        var drained = 0;
+        E element;
+        while (drained < limit && (element = poll()) != null) {
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    public int size() {
+        var consumer = consumerIndex;
+        var producer = producerIndex;
+        return (int) Math.max(0, Math.min(producer - consumer, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return consumerIndex == producerIndex;
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+}
@@ -0,0 +1,22 @@
+package cachevg.concurrent;
+
+public final class SpscRingBuffer<E> extends RingBuffer<E> {
+
+    public SpscRingBuffer(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public boolean offer(E element) {
+        var index = (long) PRODUCER_INDEX.getOpaque(this);
+        if (index >= producerLimit) {
+            producerLimit = (long) CONSUMER_INDEX.getAcquire(this) + elements.length;
+            if (index >= producerLimit) {
+                return false;
+            }
+        }
+        ELEMENTS.setRelease(elements, (int) index & mask, element);
+        PRODUCER_INDEX.setRelease(this, index + 1);
+        return true;
+    }
+}
@@ -0,0 +1,23 @@
+package cachevg.concurrent;
+
+public enum WaitStrategy {
+    BUSY_SPIN,
+    YIELD,
+    PARK;
+
+    private static final int SPIN_ROUNDS = 100;
+    private static final int YIELD_ROUNDS = 100;
+
+    // one idle round of a consumer that found its queue empty; true means it is time to park until signalled
+    public boolean idle(int rounds) {
+        if (this == BUSY_SPIN || rounds < SPIN_ROUNDS) {
+            Thread.onSpinWait();
+            return false;
+        }
+        if (this == YIELD || rounds < SPIN_ROUNDS + YIELD_ROUNDS) {
+            Thread.yield();
+            return false;
+        }
+        return true;
+    }
+}
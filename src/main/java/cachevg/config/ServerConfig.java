@@ -1,32 +1,239 @@
 package cachevg.config;
 
+import cachevg.cluster.Cluster;
+import cachevg.cluster.ClusterNode;
+import cachevg.connection.tcp.server.ClientEventsListener;
 import cachevg.connection.tcp.server.NIOServer;
 import cachevg.connection.tcp.server.Server;
+import cachevg.exception.technical.ServerProcessingError;
+import cachevg.metrics.Metrics;
+import cachevg.metrics.MetricsMBean;
 import cachevg.parser.AutomataParser;
 import cachevg.parser.MessageParser;
+import cachevg.persistence.AppendOnlyLog;
+import cachevg.persistence.Snapshots;
+import cachevg.processor.CommandMapper;
+import cachevg.replication.ReplicaLink;
+import cachevg.replication.ReplicationRole;
+import cachevg.replication.ReplicationSource;
+import cachevg.runner.ProcessingMode;
+import cachevg.runner.ProcessingPipeline;
+import cachevg.storage.CompressedValue;
+import cachevg.storage.ShardedStorage;
+import cachevg.storage.Storage;
+import cachevg.storage.ValueCompressor;
+import cachevg.tracking.KeyTracker;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class ServerConfig {
+    // keyed by port, so that several nodes can run in one JVM
+    private static final String METRICS_MBEAN = "cachevg:type=Metrics,port=";
+
     private final ServerStartupProperties properties;
 
-    public Server server() {
-        var server = new NIOServer(properties.getPort());
+    public Metrics metrics() {
+        var metrics = new Metrics();
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(metrics), new ObjectName(METRICS_MBEAN + properties.getPort()));
+        } catch (JMException ex) {
+            throw new ServerProcessingError(ex);
+        }
+        return metrics;
+    }
+
+    public Server server(Metrics metrics) {
+        var server = new NIOServer(
+                null,
+                properties.getPort(),
+                orAvailableProcessors(properties.getIoThreads()),
+                parser(),
+                properties.getBufferPoolSlots(),
+                properties.getOutboundHighWaterMark(),
+                properties.getReplyQueueCapacity(),
+                metrics);
+        metrics.gauge("connections.open", server::connections);
+        metrics.gauge("queue.replies", server::queuedReplies);
+        metrics.gauge("buffer_pool.hits", server::bufferPoolHits);
+        metrics.gauge("buffer_pool.misses", server::bufferPoolMisses);
         Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
         return server;
     }
 
     public ExecutorService executorForProcessing() {
+        if (properties.getProcessingMode() == ProcessingMode.VIRTUAL) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("processor-", 0).factory());
+        }
         var factory = Thread.ofPlatform().name("processor-", 0).factory();
-        return Executors.newSingleThreadExecutor(factory);
+        return Executors.newFixedThreadPool(orAvailableProcessors(properties.getProcessingThreads()), factory);
+    }
+
+    public ProcessingPipeline processingPipeline(ClientEventsListener handler, Metrics metrics) {
+        var processingPipeline = new ProcessingPipeline(
+                executorForProcessing(),
+                properties.getProcessingMode(),
+                orAvailableProcessors(properties.getProcessingThreads()),
+                properties.getProcessingBatchSize(),
+                properties.getProcessingQueueCapacity(),
+                properties.getWaitStrategy(),
+                handler);
+        metrics.gauge("queue.events", processingPipeline::queuedEvents);
+        return processingPipeline;
     }
 
     public MessageParser parser() {
         return new AutomataParser();
     }
 
+    public Storage storage(Metrics metrics) {
+        var storage = new ShardedStorage(
+                properties.getShards(),
+                properties.getMaxMemoryBytes(),
+                properties.getMaxEntries(),
+                properties.getEvictionPolicy(),
+                properties.getStorageMode());
+        expirationExecutor().scheduleWithFixedDelay(
+                storage::expireEntries,
+                properties.getExpirationTickMs(),
+                properties.getExpirationTickMs(),
+                TimeUnit.MILLISECONDS);
+        metrics.gauge("storage.entries", () -> storage.stats().entries());
+        metrics.gauge("storage.used_memory_bytes", () -> storage.stats().usedMemoryBytes());
+        metrics.gauge("storage.off_heap_bytes", () -> storage.stats().offHeapBytes());
+        metrics.gauge("storage.evictions", () -> storage.stats().evictions());
+        metrics.gauge("storage.expirations", () -> storage.stats().expirations());
+        Runtime.getRuntime().addShutdownHook(new Thread(CompressedValue::endInflaters));
+        return storage;
+    }
+
+    public AppendOnlyLog appendOnlyLog(Storage storage, Metrics metrics) {
+        if (!properties.isAppendOnly()) {
+            return null;
+        }
+        var appendOnlyLog = new AppendOnlyLog(
+                Path.of(properties.getAppendOnlyPath()),
+                properties.getAppendFsync(),
+                properties.getAppendOnlyRewriteMinBytes(),
+                properties.getAppendOnlyRewritePercentage(),
+                storage,
+                metrics);
+        Runtime.getRuntime().addShutdownHook(new Thread(appendOnlyLog::close));
+        return appendOnlyLog;
+    }
+
+    public Snapshots snapshots(Storage storage, Metrics metrics) {
+        return new Snapshots(
+                Path.of(properties.getSnapshotPath()),
+                storage,
+                orAvailableProcessors(properties.getSnapshotLoadThreads()),
+                metrics);
+    }
+
+    public void scheduleSnapshots(Snapshots snapshots) {
+        var interval = properties.getSnapshotIntervalSeconds();
+        if (interval <= 0) {
+            return;
+        }
+        var factory = Thread.ofPlatform().name("snapshot-scheduler").daemon().factory();
+        Executors.newSingleThreadScheduledExecutor(factory)
+                .scheduleWithFixedDelay(snapshots::save, interval, interval, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(snapshots::save));
+    }
+
+    public ScheduledExecutorService expirationExecutor() {
+        var factory = Thread.ofPlatform().name("expiration").daemon().factory();
+        return Executors.newSingleThreadScheduledExecutor(factory);
+    }
+
+    public ReplicationSource replicationSource(Storage storage, Metrics metrics) {
+        if (properties.getReplicationRole() != ReplicationRole.PRIMARY || properties.getReplicationPort() <= 0) {
+            return null;
+        }
+        var replicationSource = new ReplicationSource(
+                properties.getReplicationPort(),
+                properties.getReplicationBacklogBytes(),
+                storage,
+                metrics);
+        Runtime.getRuntime().addShutdownHook(new Thread(replicationSource::close));
+        return replicationSource;
+    }
+
+    public ReplicaLink replicaLink(Storage storage, Metrics metrics) {
+        if (properties.getReplicationRole() != ReplicationRole.REPLICA) {
+            return null;
+        }
+        var replicaLink = new ReplicaLink(
+                properties.getPrimaryHost(),
+                properties.getPrimaryReplicationPort(),
+                storage,
+                metrics);
+        Runtime.getRuntime().addShutdownHook(new Thread(replicaLink::close));
+        return replicaLink;
+    }
+
+    public Cluster cluster(Storage storage, Metrics metrics) {
+        if (!properties.isClusterEnabled()) {
+            return null;
+        }
+        var self = properties.getClusterNode() != null
+                ? ClusterNode.parse(properties.getClusterNode())
+                : new ClusterNode("127.0.0.1", properties.getPort());
+        return new Cluster(
+                self,
+                properties.getClusterNodes(),
+                storage,
+                Math.min(properties.getClusterMigrationBatchBytes(), Cluster.maxMigrationBatchBytes(parser().maxMessageSize())),
+                metrics);
+    }
+
+    public ValueCompressor valueCompressor(Metrics metrics) {
+        if (properties.getCompressionThresholdBytes() <= 0) {
+            return null;
+        }
+        var valueCompressor = new ValueCompressor(
+                properties.getCompressionThresholdBytes(),
+                properties.getCompressionLevel(),
+                metrics);
+        Runtime.getRuntime().addShutdownHook(new Thread(valueCompressor::close));
+        return valueCompressor;
+    }
+
+    // fed by the storage mutations, so writes applied by replication invalidate a replica's readers too
+    public KeyTracker keyTracker(Server server, Storage storage, Metrics metrics) {
+        if (!properties.isTrackingEnabled()) {
+            return null;
+        }
+        var tracker = new KeyTracker(
+                server,
+                properties.getTrackingTableBuckets(),
+                properties.getTrackingMaxClients(),
+                metrics);
+        storage.addMutationListener(tracker);
+        return tracker;
+    }
+
+    public CommandMapper commandMapper(
+            Storage storage,
+            Metrics metrics,
+            Snapshots snapshots,
+            Cluster cluster,
+            KeyTracker tracker) {
+        var readOnly = properties.getReplicationRole() == ReplicationRole.REPLICA;
+        return new CommandMapper(storage, metrics, snapshots, readOnly, cluster, valueCompressor(metrics), tracker);
+    }
+
     public ServerConfig(ServerStartupProperties properties) {
         this.properties = properties;
     }
+
+    private static int orAvailableProcessors(int threads) {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
 }
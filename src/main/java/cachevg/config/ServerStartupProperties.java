@@ -1,7 +1,53 @@
 package cachevg.config;
 
+import cachevg.concurrent.WaitStrategy;
+import cachevg.persistence.FsyncPolicy;
+import cachevg.replication.ReplicationRole;
+import cachevg.runner.ProcessingMode;
+import cachevg.storage.EvictionPolicyType;
+import cachevg.storage.StorageMode;
+
+import java.util.List;
+
 public class ServerStartupProperties {
     private int port;
+    private int shards = 16;
+    private StorageMode storageMode = StorageMode.HEAP;
+    private long maxMemoryBytes;
+    private long maxEntries;
+    private EvictionPolicyType evictionPolicy = EvictionPolicyType.LRU;
+    private long expirationTickMs = 10;
+    private int ioThreads;
+    private int bufferPoolSlots = 64;
+    private long outboundHighWaterMark = 4 * 1024 * 1024;
+    private int processingThreads;
+    private int processingBatchSize = 64;
+    private int processingQueueCapacity = 1024;
+    private ProcessingMode processingMode = ProcessingMode.PLATFORM;
+    private int replyQueueCapacity = 4096;
+    private WaitStrategy waitStrategy = WaitStrategy.PARK;
+    private boolean appendOnly;
+    private String appendOnlyPath = "appendonly.aof";
+    private FsyncPolicy appendFsync = FsyncPolicy.EVERYSEC;
+    private long appendOnlyRewriteMinBytes = 64 * 1024 * 1024;
+    private int appendOnlyRewritePercentage = 100;
+    private String snapshotPath = "dump.cvg";
+    private long snapshotIntervalSeconds = 0;
+    private int snapshotLoadThreads = 0;
+    private ReplicationRole replicationRole = ReplicationRole.PRIMARY;
+    private int replicationPort;
+    private String primaryHost = "localhost";
+    private int primaryReplicationPort;
+    private int replicationBacklogBytes = 16 * 1024 * 1024;
+    private boolean clusterEnabled;
+    private String clusterNode;
+    private List<String> clusterNodes = List.of();
+    private int clusterMigrationBatchBytes = 256 * 1024;
+    private int compressionThresholdBytes;
+    private int compressionLevel = 1;
+    private boolean trackingEnabled;
+    private int trackingTableBuckets = 64 * 1024;
+    private int trackingMaxClients = 256;
 
     public int getPort() {
         return port;
@@ -10,4 +56,300 @@ public class ServerStartupProperties {
     public void setPort(int port) {
         this.port = port;
     }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    public void setStorageMode(StorageMode storageMode) {
+        this.storageMode = storageMode;
+    }
+
+    public long getMaxMemoryBytes() {
+        return maxMemoryBytes;
+    }
+
+    public void setMaxMemoryBytes(long maxMemoryBytes) {
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public EvictionPolicyType getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    public void setEvictionPolicy(EvictionPolicyType evictionPolicy) {
+        this.evictionPolicy = evictionPolicy;
+    }
+
+    public long getExpirationTickMs() {
+        return expirationTickMs;
+    }
+
+    public void setExpirationTickMs(long expirationTickMs) {
+        this.expirationTickMs = expirationTickMs;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public void setIoThreads(int ioThreads) {
+        this.ioThreads = ioThreads;
+    }
+
+    public int getBufferPoolSlots() {
+        return bufferPoolSlots;
+    }
+
+    public void setBufferPoolSlots(int bufferPoolSlots) {
+        this.bufferPoolSlots = bufferPoolSlots;
+    }
+
+    public long getOutboundHighWaterMark() {
+        return outboundHighWaterMark;
+    }
+
+    public void setOutboundHighWaterMark(long outboundHighWaterMark) {
+        this.outboundHighWaterMark = outboundHighWaterMark;
+    }
+
+    public int getProcessingThreads() {
+        return processingThreads;
+    }
+
+    public void setProcessingThreads(int processingThreads) {
+        this.processingThreads = processingThreads;
+    }
+
+    public int getProcessingBatchSize() {
+        return processingBatchSize;
+    }
+
+    public void setProcessingBatchSize(int processingBatchSize) {
+        this.processingBatchSize = processingBatchSize;
+    }
+
+    public int getProcessingQueueCapacity() {
+        return processingQueueCapacity;
+    }
+
+    public void setProcessingQueueCapacity(int processingQueueCapacity) {
+        this.processingQueueCapacity = processingQueueCapacity;
+    }
+
+    public ProcessingMode getProcessingMode() {
+        return processingMode;
+    }
+
+    public void setProcessingMode(ProcessingMode processingMode) {
+        this.processingMode = processingMode;
+    }
+
+    public int getReplyQueueCapacity() {
+        return replyQueueCapacity;
+    }
+
+    public void setReplyQueueCapacity(int replyQueueCapacity) {
+        this.replyQueueCapacity = replyQueueCapacity;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public void setWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
+    public boolean isAppendOnly() {
+        return appendOnly;
+    }
+
+    public void setAppendOnly(boolean appendOnly) {
+        this.appendOnly = appendOnly;
+    }
+
+    public String getAppendOnlyPath() {
+        return appendOnlyPath;
+    }
+
+    public void setAppendOnlyPath(String appendOnlyPath) {
+        this.appendOnlyPath = appendOnlyPath;
+    }
+
+    public FsyncPolicy getAppendFsync() {
+        return appendFsync;
+    }
+
+    public void setAppendFsync(FsyncPolicy appendFsync) {
+        this.appendFsync = appendFsync;
+    }
+
+    public long getAppendOnlyRewriteMinBytes() {
+        return appendOnlyRewriteMinBytes;
+    }
+
+    public void setAppendOnlyRewriteMinBytes(long appendOnlyRewriteMinBytes) {
+        this.appendOnlyRewriteMinBytes = appendOnlyRewriteMinBytes;
+    }
+
+    public int getAppendOnlyRewritePercentage() {
+        return appendOnlyRewritePercentage;
+    }
+
+    public void setAppendOnlyRewritePercentage(int appendOnlyRewritePercentage) {
+        this.appendOnlyRewritePercentage = appendOnlyRewritePercentage;
+    }
+
+    public String getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    public void setSnapshotPath(String snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+
+    public long getSnapshotIntervalSeconds() {
+        return snapshotIntervalSeconds;
+    }
+
+    public void setSnapshotIntervalSeconds(long snapshotIntervalSeconds) {
+        this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+    }
+
+    public int getSnapshotLoadThreads() {
+        return snapshotLoadThreads;
+    }
+
+    public void setSnapshotLoadThreads(int snapshotLoadThreads) {
+        this.snapshotLoadThreads = snapshotLoadThreads;
+    }
+
+    public ReplicationRole getReplicationRole() {
+        return replicationRole;
+    }
+
+    public void setReplicationRole(ReplicationRole replicationRole) {
+        this.replicationRole = replicationRole;
+    }
+
+    public int getReplicationPort() {
+        return replicationPort;
+    }
+
+    public void setReplicationPort(int replicationPort) {
+        this.replicationPort = replicationPort;
+    }
+
+    public String getPrimaryHost() {
+        return primaryHost;
+    }
+
+    public void setPrimaryHost(String primaryHost) {
+        this.primaryHost = primaryHost;
+    }
+
+    public int getPrimaryReplicationPort() {
+        return primaryReplicationPort;
+    }
+
+    public void setPrimaryReplicationPort(int primaryReplicationPort) {
+        this.primaryReplicationPort = primaryReplicationPort;
+    }
+
+    public int getReplicationBacklogBytes() {
+        return replicationBacklogBytes;
+    }
+
+    public void setReplicationBacklogBytes(int replicationBacklogBytes) {
+        this.replicationBacklogBytes = replicationBacklogBytes;
+    }
+
+    public boolean isClusterEnabled() {
+        return clusterEnabled;
+    }
+
+    public void setClusterEnabled(boolean clusterEnabled) {
+        this.clusterEnabled = clusterEnabled;
+    }
+
+    public String getClusterNode() {
+        return clusterNode;
+    }
+
+    public void setClusterNode(String clusterNode) {
+        this.clusterNode = clusterNode;
+    }
+
+    public List<String> getClusterNodes() {
+        return clusterNodes;
+    }
+
+    public void setClusterNodes(List<String> clusterNodes) {
+        this.clusterNodes = clusterNodes;
+    }
+
+    public int getClusterMigrationBatchBytes() {
+        return clusterMigrationBatchBytes;
+    }
+
+    public void setClusterMigrationBatchBytes(int clusterMigrationBatchBytes) {
+        this.clusterMigrationBatchBytes = clusterMigrationBatchBytes;
+    }
+
+    public int getCompressionThresholdBytes() {
+        return compressionThresholdBytes;
+    }
+
+    public void setCompressionThresholdBytes(int compressionThresholdBytes) {
+        this.compressionThresholdBytes = compressionThresholdBytes;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public boolean isTrackingEnabled() {
+        return trackingEnabled;
+    }
+
+    public void setTrackingEnabled(boolean trackingEnabled) {
+        this.trackingEnabled = trackingEnabled;
+    }
+
+    public int getTrackingTableBuckets() {
+        return trackingTableBuckets;
+    }
+
+    public void setTrackingTableBuckets(int trackingTableBuckets) {
+        this.trackingTableBuckets = trackingTableBuckets;
+    }
+
+    public int getTrackingMaxClients() {
+        return trackingMaxClients;
+    }
+
+    public void setTrackingMaxClients(int trackingMaxClients) {
+        this.trackingMaxClients = trackingMaxClients;
+    }
 }
@@ -0,0 +1,14 @@
+package cachevg.connection.tcp.server;
+
+import cachevg.connection.tcp.server.message.ClientMessage;
+
+import java.net.SocketAddress;
+
+// false means the event is not accepted yet, the server offers it again later and keeps the client's messages meanwhile
+public interface ClientEventsListener {
+    boolean onConnected(SocketAddress clientAddress);
+
+    boolean onMessage(ClientMessage message);
+
+    boolean onDisconnected(SocketAddress clientAddress);
+}
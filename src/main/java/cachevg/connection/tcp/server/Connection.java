@@ -0,0 +1,144 @@
+package cachevg.connection.tcp.server;
+
+import cachevg.buffer.PooledBuffer;
+import cachevg.connection.tcp.server.message.ClientMessage;
+import cachevg.parser.ParsingState;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+class Connection {
+    private final SocketChannel channel;
+    private final SocketAddress address;
+    private final ParsingState parsingState = new ParsingState();
+    private final Deque<PooledBuffer> outbound = new ArrayDeque<>();
+    private SelectionKey key;
+    private PooledBuffer readBuffer;
+    private long pendingBytes;
+    private boolean readPaused;
+    private ClientMessage heldMessage;
+
+    Connection(SocketChannel channel, SocketAddress address, PooledBuffer readBuffer) {
+        this.channel = channel;
+        this.address = address;
+        this.readBuffer = readBuffer;
+    }
+
+    SocketChannel channel() {
+        return channel;
+    }
+
+    SocketAddress address() {
+        return address;
+    }
+
+    ParsingState parsingState() {
+        return parsingState;
+    }
+
+    PooledBuffer readBuffer() {
+        return readBuffer;
+    }
+
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    void replaceReadBuffer(PooledBuffer newBuffer) {
+        var oldBuffer = readBuffer.buffer();
+        newBuffer.buffer().put(oldBuffer);
+        readBuffer.release();
+        readBuffer = newBuffer;
+    }
+
+    void enqueue(PooledBuffer message) {
+        outbound.addLast(message);
+        pendingBytes += message.buffer().remaining();
+    }
+
+    boolean hasPendingWrites() {
+        return !outbound.isEmpty();
+    }
+
+    long pendingBytes() {
+        return pendingBytes;
+    }
+
+    long flush(ByteBuffer[] gather) throws IOException {
+        var written = 0L;
+        while (!outbound.isEmpty()) {
+            var count = 0;
+            var gathered = 0L;
+            for (var message : outbound) {
+                if (count == gather.length) {
+                    break;
+                }
+                gather[count++] = message.buffer();
+                gathered += message.buffer().remaining();
+            }
+            var bytes = channel.write(gather, 0, count);
+            written += bytes;
+            pendingBytes -= bytes;
+            while (!outbound.isEmpty() && !outbound.peekFirst().buffer().hasRemaining()) {
+                outbound.pollFirst().release();
+            }
+            if (bytes < gathered) {
+                break;
+            }
+        }
+        Arrays.fill(gather, null);
+        return written;
+    }
+
+    void updateInterest(long highWaterMark) {
+        if (!key.isValid()) {
+            return;
+        }
+        var ops = SelectionKey.OP_READ;
+        if (readPaused) {
+            readPaused = pendingBytes > highWaterMark / 2;
+        } else {
+            readPaused = pendingBytes > highWaterMark;
+        }
+        if (readPaused || heldMessage != null) {
+            ops = 0;
+        }
+        if (!outbound.isEmpty()) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        if (key.interestOps() != ops) {
+            key.interestOps(ops);
+        }
+    }
+
+    boolean isReadPaused() {
+        return readPaused || heldMessage != null;
+    }
+
+    ClientMessage heldMessage() {
+        return heldMessage;
+    }
+
+    void holdMessage(ClientMessage message) {
+        heldMessage = message;
+    }
+
+    void release() {
+        readBuffer.release();
+        PooledBuffer message;
+        while ((message = outbound.pollFirst()) != null) {
+            message.release();
+        }
+        pendingBytes = 0;
+        if (heldMessage != null) {
+            heldMessage.release();
+            heldMessage = null;
+        }
+    }
+}
@@ -1,15 +1,16 @@
 package cachevg.connection.tcp.server;
 
+import cachevg.buffer.BufferPool;
+import cachevg.connection.tcp.server.message.ClientEvent;
 import cachevg.connection.tcp.server.message.ClientMessage;
 import cachevg.connection.tcp.server.message.ServerMessage;
-import cachevg.exception.technical.ClientCommunicationException;
 import cachevg.exception.technical.ServerProcessingError;
+import cachevg.metrics.Metrics;
+import cachevg.parser.MessageParser;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import sun.misc.Unsafe;
 
 import java.io.IOException;
-import java.lang.reflect.Constructor;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
@@ -17,75 +18,80 @@ import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
-import java.nio.channels.SocketChannel;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class NIOServer implements Server {
     private static final Logger log = LogManager.getLogger(NIOServer.class);
-    private static final byte[] EMPTY_ARRAY = new byte[0];
     private static final int TIME_OUT_MS = 100;
 
-    private final Unsafe unsafe;
+    private final MessageParser parser;
+    private final int bufferPoolSlots;
+    private final long outboundHighWaterMark;
+    private final int replyQueueCapacity;
+    private final Metrics metrics;
     private final int port;
     private final InetAddress addr;
-    private long clientMessagesCounter;
-    private long clientBytesCounter;
+    private final Reactor[] reactors;
+    private final Thread[] reactorThreads;
+    private int nextReactor;
 
-    private final Map<SocketAddress, SocketChannel> clients = new HashMap<>();
-    private final Queue<SocketAddress> connectedClientsEvents = new ConcurrentLinkedQueue<>();
-    private final Queue<SocketAddress> disconnectedClientsEvents = new ConcurrentLinkedQueue<>();
-    private final Queue<ServerMessage> messagesForClients = new ArrayBlockingQueue<>(1000);
-    private final Queue<ClientMessage> messagesFromClients = new ArrayBlockingQueue<>(1000);
+    private final Map<SocketAddress, Reactor> clientReactors = new ConcurrentHashMap<>();
+    private ClientEventsListener listener;
 
-    private static final int MESSAGE_SIZE_LIMIT_BYTES = 102_400;
-    private final ByteBuffer buffer = ByteBuffer.allocate(1024);
-
-    private final List<ByteBuffer> parts = new ArrayList<>();
     private volatile boolean active = true;
 
-    public NIOServer(int port) {
-        this(null, port);
+    public NIOServer(int port, MessageParser parser) {
+        this(null, port, Runtime.getRuntime().availableProcessors(), parser, 64, 4 * 1024 * 1024, 4096, new Metrics());
     }
 
-    public NIOServer(InetAddress addr, int port) {
-        try {
-            Constructor<Unsafe> unsafeConstructor = Unsafe.class.getDeclaredConstructor();
-            unsafeConstructor.setAccessible(true);
-            unsafe = unsafeConstructor.newInstance();
-        } catch (Exception ex) {
-            throw new ServerProcessingError(ex);
-        }
-
-        log.debug("addr:{}, port:{}", addr, port);
+    public NIOServer(
+            InetAddress addr,
+            int port,
+            int ioThreads,
+            MessageParser parser,
+            int bufferPoolSlots,
+            long outboundHighWaterMark,
+            int replyQueueCapacity,
+            Metrics metrics) {
+        log.debug("addr:{}, port:{}, ioThreads:{}", addr, port, ioThreads);
         this.addr = addr;
         this.port = port;
+        this.parser = parser;
+        this.bufferPoolSlots = bufferPoolSlots;
+        this.outboundHighWaterMark = outboundHighWaterMark;
+        this.replyQueueCapacity = replyQueueCapacity;
+        this.metrics = metrics;
+        this.reactors = new Reactor[Math.max(1, ioThreads)];
+        this.reactorThreads = new Thread[reactors.length];
     }
 
-
     @Override
     public void start() {
         try {
+            startReactors();
             try (var serverSocketChannel = ServerSocketChannel.open()) {
                 serverSocketChannel.configureBlocking(false);
                 var serverSocket = serverSocketChannel.socket();
                 serverSocket.bind(new InetSocketAddress(addr, port));
                 try (var selector = Selector.open()) {
                     serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
-                    log.info("Started server at addr:{}, port:{}", addr, port);
+                    log.info("Started server at addr:{}, port:{}, reactors:{}", addr, port, reactors.length);
                     while (active) {
-                        handleSelector(selector);
+                        selector.select(this::acceptConnection, TIME_OUT_MS);
                     }
-                    log.info("Server stopped. addr:{}, port:{}", addr, port);
                 }
             }
+            stopReactors();
+            log.info(
+                    "Server stopped. addr:{}, port:{}, bufferPoolHits:{}, bufferPoolMisses:{}",
+                    addr,
+                    port,
+                    bufferPoolHits(),
+                    bufferPoolMisses());
         } catch (Exception ex) {
             log.error("Error. addr:{}, port:{}", addr, port, ex);
+            stopReactors();
             throw new ServerProcessingError(ex);
         }
     }
@@ -97,171 +103,142 @@ public class NIOServer implements Server {
     }
 
     @Override
-    public Queue<SocketAddress> getConnectedClientsEvents() {
-        return connectedClientsEvents;
+    public void setClientEventsListener(ClientEventsListener listener) {
+        this.listener = listener;
     }
 
     @Override
-    public Queue<SocketAddress> getDisconnectedClientsEvents() {
-        return disconnectedClientsEvents;
-    }
-
-    @Override
-    public Queue<ClientMessage> getMessagesFromClients() {
-        return messagesFromClients;
+    public boolean send(SocketAddress clientAddress, byte[] data) {
+        return send(clientAddress, ByteBuffer.wrap(data));
     }
 
     @Override
-    public boolean send(SocketAddress clientAddress, byte[] data) {
-        var result = messagesForClients.offer(new ServerMessage(clientAddress, data));
+    public boolean send(SocketAddress clientAddress, ByteBuffer data) {
+        var reactor = clientReactors.get(clientAddress);
+        if (reactor == null) {
+            log.error("Client {} not found", clientAddress);
+            return false;
+        }
+        var message = reactor.bufferPool().acquire(data.remaining());
+        message.buffer().put(data).flip();
+        var result = reactor.send(new ServerMessage(clientAddress, message));
+        if (!result) {
+            message.release();
+        }
         log.debug("Scheduled for sending to the client:{}, result:{}", clientAddress, result);
         return result;
     }
 
-    private void handleSelector(Selector selector) {
-        try {
-            selector.select(this::performIO, TIME_OUT_MS);
-            sendMessagesToClients();
-        } catch (ClientCommunicationException ex) {
-            var clintAddress = getSocketAddress(ex.getSocketChannel());
-            log.error("Error in client communication:{}", clintAddress, ex);
-            disconnect(clintAddress);
-        } catch (Exception ex) {
-            log.error("Unexpected error:{}", ex.getMessage(), ex);
+    public long connections() {
+        var connections = 0L;
+        for (var reactor : reactors) {
+            connections += reactor == null ? 0 : reactor.clientsCount();
         }
+        return connections;
     }
 
-    private void performIO(SelectionKey selectedKey) {
-        if (selectedKey.isAcceptable()) {
-            acceptConnection(selectedKey);
-        } else if (selectedKey.isReadable()) {
-            readFromClient(selectedKey);
+    public long queuedReplies() {
+        var replies = 0L;
+        for (var reactor : reactors) {
+            replies += reactor == null ? 0 : reactor.queuedReplies();
         }
+        return replies;
     }
 
-    private void acceptConnection(SelectionKey key) {
-        var serverSocketChannel = (ServerSocketChannel) key.channel();
-        try {
-            var clientSocketChannel = serverSocketChannel.accept();
-            var selector = key.selector();
-            log.debug(
-                    "Accept client connection: key:{}, selector:{}, clientSocketChannel:{}",
-                    key,
-                    selector,
-                    clientSocketChannel);
-
-            clientSocketChannel.configureBlocking(false);
-            clientSocketChannel.register(selector, SelectionKey.OP_READ | SelectionKey.OP_WRITE);
-
-            var remoteAddress = clientSocketChannel.getRemoteAddress();
-            clients.put(remoteAddress, clientSocketChannel);
-            connectedClientsEvents.add(remoteAddress);
-        } catch (Exception ex) {
-            log.error("Can't accept new client on:{}", key);
+    public long bufferPoolHits() {
+        var hits = 0L;
+        for (var reactor : reactors) {
+            hits += reactor == null ? 0 : reactor.bufferPool().hits();
         }
+        return hits;
     }
 
-    private void disconnect(SocketAddress clientAddress) {
-        var clientChannel = clients.remove(clientAddress);
-        if (clientChannel != null) {
-            try {
-                clientChannel.close();
-            } catch (IOException e) {
-                log.error("clientChannel:{}, closing error:{}", clientAddress, e.getMessage(), e);
-            }
+    public long bufferPoolMisses() {
+        var misses = 0L;
+        for (var reactor : reactors) {
+            misses += reactor == null ? 0 : reactor.bufferPool().misses();
         }
-        log.debug(
-                "messagesFromClientsCounter:{}, bytesFromClientsCounter:{}",
-                clientMessagesCounter,
-                clientBytesCounter);
-        disconnectedClientsEvents.add(clientAddress);
+        return misses;
     }
 
-    private void readFromClient(SelectionKey selectionKey) {
-        var socketChannel = (SocketChannel) selectionKey.channel();
-        log.debug("{}. Reading from client", socketChannel);
+    boolean connected(SocketAddress clientAddress, Reactor reactor) {
+        clientReactors.put(clientAddress, reactor);
+        return listener.onConnected(clientAddress);
+    }
 
-        var data = readRequest(socketChannel);
-        clientBytesCounter += data.length;
-        if (data.length == 0) {
-            disconnect(getSocketAddress(socketChannel));
-        } else {
-            clientMessagesCounter++;
-            messagesFromClients.add(new ClientMessage(getSocketAddress(socketChannel), data));
-        }
+    boolean disconnected(SocketAddress clientAddress) {
+        forget(clientAddress);
+        return listener.onDisconnected(clientAddress);
     }
 
-    private SocketAddress getSocketAddress(SocketChannel socketChannel) {
-        try {
-            return socketChannel.getRemoteAddress();
-        } catch (Exception ex) {
-            throw new ClientCommunicationException("Get RemoteAddress error", ex, socketChannel);
-        }
+    // replies to a client that is gone have nowhere to go, even while its disconnection waits to be delivered
+    void forget(SocketAddress clientAddress) {
+        clientReactors.remove(clientAddress);
     }
 
-    private byte[] readRequest(SocketChannel socketChannel) {
-        try {
-            int usedIdx = 0;
-            int readBytesTotal = 0;
-            int readBytes;
-            while (readBytesTotal < MESSAGE_SIZE_LIMIT_BYTES && (readBytes = socketChannel.read(buffer)) > 0) {
-                buffer.flip();
-                if (usedIdx >= parts.size()) {
-                    parts.add(ByteBuffer.allocateDirect(readBytes));
-                }
+    // an event the listener did not accept at first
+    boolean redeliver(ClientEvent event) {
+        return event.kind() == ClientEvent.Kind.CONNECTED
+                ? listener.onConnected(event.clientAddress())
+                : listener.onDisconnected(event.clientAddress());
+    }
 
-                if (parts.get(usedIdx).capacity() < readBytes) {
-                    unsafe.invokeCleaner(parts.get(usedIdx));
-                    parts.add(usedIdx, ByteBuffer.allocateDirect(readBytes));
-                }
+    boolean received(ClientMessage message) {
+        return listener.onMessage(message);
+    }
 
-                parts.get(usedIdx).put(buffer);
-                buffer.flip();
-                readBytesTotal += readBytes;
-                usedIdx++;
-            }
-            log.debug("Reading bytes:{}, usedIdx:{}", readBytesTotal, usedIdx);
+    private void startReactors() {
+        var factory = Thread.ofPlatform().name("reactor-", 0).factory();
+        for (var idx = 0; idx < reactors.length; idx++) {
+            var bufferPool = new BufferPool(parser.maxMessageSize() + MessageParser.FRAME_OVERHEAD, bufferPoolSlots);
+            reactors[idx] = new Reactor(idx, this, parser, bufferPool, outboundHighWaterMark, replyQueueCapacity, metrics);
+            reactorThreads[idx] = factory.newThread(reactors[idx]);
+            reactorThreads[idx].start();
+        }
+    }
 
-            if (readBytesTotal == 0) {
-                return EMPTY_ARRAY;
+    private void stopReactors() {
+        for (var idx = 0; idx < reactors.length; idx++) {
+            if (reactors[idx] != null) {
+                reactors[idx].stop();
             }
-            var result = new byte[readBytesTotal];
-            var resultIdx = 0;
-
-            for (var idx = 0; idx < usedIdx; idx++) {
-                var part = parts.get(idx);
-                part.flip();
-                part.get(result, resultIdx, part.limit());
-                resultIdx += part.limit();
-                part.flip();
+        }
+        for (var thread : reactorThreads) {
+            if (thread != null) {
+                try {
+                    thread.join();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
             }
-            return result;
-        } catch (Exception ex) {
-            throw new ClientCommunicationException("Error occurred while reading the message", ex, socketChannel);
         }
     }
 
-    private void sendMessagesToClients() {
-        ServerMessage msg;
-        while ((msg = messagesForClients.poll()) != null) {
-            var client = clients.get(msg.clientAddress());
-            if (client == null) {
-                log.error("Client {} not found", msg.clientAddress());
-            } else {
-                write(client, msg.message());
+    private void acceptConnection(SelectionKey key) {
+        var serverSocketChannel = (ServerSocketChannel) key.channel();
+        try {
+            var clientSocketChannel = serverSocketChannel.accept();
+            if (clientSocketChannel == null) {
+                return;
             }
+            var reactor = leastLoadedReactor();
+            log.debug("Accept client connection: key:{}, clientSocketChannel:{}", key, clientSocketChannel);
+            reactor.register(clientSocketChannel);
+        } catch (IOException ex) {
+            log.error("Can't accept new client on:{}", key, ex);
         }
     }
 
-    private void write(SocketChannel clientChannel, byte[] data) {
-        log.debug("Writing to client:{}, data.length:{}", clientChannel, data.length);
-        var bufferForWrite = ByteBuffer.allocate(data.length);
-        bufferForWrite.put(data);
-        bufferForWrite.flip();
-        try {
-            clientChannel.write(bufferForWrite);
-        } catch (Exception ex) {
-            throw new ClientCommunicationException("Write to the client error", ex, clientChannel);
+    private Reactor leastLoadedReactor() {
+        var start = nextReactor;
+        nextReactor = (nextReactor + 1) % reactors.length;
+        var result = reactors[start];
+        for (var idx = 1; idx < reactors.length; idx++) {
+            var candidate = reactors[(start + idx) % reactors.length];
+            if (candidate.clientsCount() < result.clientsCount()) {
+                result = candidate;
+            }
         }
+        return result;
     }
 }
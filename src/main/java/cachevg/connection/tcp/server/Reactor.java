@@ -0,0 +1,361 @@
+package cachevg.connection.tcp.server;
+
+import cachevg.buffer.BufferPool;
+import cachevg.concurrent.MpscRingBuffer;
+import cachevg.concurrent.RingBuffer;
+import cachevg.connection.tcp.server.message.ClientEvent;
+import cachevg.connection.tcp.server.message.ClientMessage;
+import cachevg.connection.tcp.server.message.ServerMessage;
+import cachevg.exception.technical.ClientCommunicationException;
+import cachevg.exception.technical.ServerProcessingError;
+import cachevg.metrics.LatencyHistogram;
+import cachevg.metrics.Meter;
+import cachevg.metrics.Metrics;
+import cachevg.parser.FrameHandler;
+import cachevg.parser.MessageParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class Reactor implements Runnable, FrameHandler {
+    private static final Logger log = LogManager.getLogger(Reactor.class);
+    private static final int TIME_OUT_MS = 100;
+    private static final int MESSAGE_SIZE_LIMIT_BYTES = 102_400;
+    private static final int INITIAL_READ_BUFFER_SIZE = 4096;
+    private static final int GATHERING_WRITE_BUFFERS = 64;
+    private static final int INITIAL_FRAMES_PER_READ = 64;
+
+    private final int id;
+    private final NIOServer server;
+    private final MessageParser parser;
+    private final BufferPool bufferPool;
+    private final long outboundHighWaterMark;
+    private final Selector selector;
+    private final Meter bytesIn;
+    private final Meter bytesOut;
+    private final Meter framesIn;
+    private final Meter parserErrors;
+    private final Meter acceptedConnections;
+    private final LatencyHistogram loopTime;
+    private long loopStarted;
+
+    private final Map<SocketAddress, Connection> clients = new HashMap<>();
+    private final AtomicInteger clientsCount = new AtomicInteger();
+    private final Queue<SocketChannel> acceptedChannels = new ConcurrentLinkedQueue<>();
+    private final RingBuffer<ServerMessage> messagesForClients;
+    private final AtomicBoolean wakeupScheduled = new AtomicBoolean();
+    private final List<Connection> connectionsToFlush = new ArrayList<>();
+    private final List<Connection> connectionsWithHeldMessages = new ArrayList<>();
+    private final List<ClientEvent> pendingEvents = new ArrayList<>();
+    private final ByteBuffer[] gather = new ByteBuffer[GATHERING_WRITE_BUFFERS];
+    private int[] frameBounds = new int[INITIAL_FRAMES_PER_READ * 2];
+    private int framesCount;
+
+    private volatile boolean active = true;
+
+    Reactor(
+            int id,
+            NIOServer server,
+            MessageParser parser,
+            BufferPool bufferPool,
+            long outboundHighWaterMark,
+            int replyQueueCapacity,
+            Metrics metrics) {
+        this.id = id;
+        this.bytesIn = metrics.meter("net.bytes_in");
+        this.bytesOut = metrics.meter("net.bytes_out");
+        this.framesIn = metrics.meter("net.frames_in");
+        this.parserErrors = metrics.meter("parser.errors");
+        this.acceptedConnections = metrics.meter("connections.accepted");
+        this.loopTime = metrics.histogram("reactor.loop");
+        this.messagesForClients = new MpscRingBuffer<>(replyQueueCapacity);
+        this.server = server;
+        this.parser = parser;
+        this.bufferPool = bufferPool;
+        this.outboundHighWaterMark = outboundHighWaterMark;
+        try {
+            this.selector = Selector.open();
+        } catch (IOException ex) {
+            throw new ServerProcessingError(ex);
+        }
+    }
+
+    @Override
+    public void run() {
+        log.info("Reactor:{} started", id);
+        try (selector) {
+            while (active) {
+                handleSelector();
+            }
+            for (var client : clients.values()) {
+                closeChannel(client.channel());
+                client.release();
+            }
+        } catch (IOException ex) {
+            log.error("Reactor:{} closing error:{}", id, ex.getMessage(), ex);
+        }
+        log.info("Reactor:{} stopped", id);
+    }
+
+    void stop() {
+        active = false;
+        selector.wakeup();
+    }
+
+    int clientsCount() {
+        return clientsCount.get();
+    }
+
+    void register(SocketChannel clientChannel) {
+        clientsCount.incrementAndGet();
+        acceptedChannels.add(clientChannel);
+        selector.wakeup();
+    }
+
+    int queuedReplies() {
+        return messagesForClients.size();
+    }
+
+    BufferPool bufferPool() {
+        return bufferPool;
+    }
+
+    boolean send(ServerMessage message) {
+        // the processor waits for room rather than dropping the reply, the reactor drains the queue on every wakeup
+        while (!messagesForClients.offer(message)) {
+            if (!active) {
+                return false;
+            }
+            selector.wakeup();
+            Thread.yield();
+        }
+        if (wakeupScheduled.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+        return true;
+    }
+
+    private void handleSelector() {
+        try {
+            registerAcceptedChannels();
+            loopStarted = 0;
+            selector.select(this::performIO, TIME_OUT_MS);
+            if (loopStarted == 0) {
+                loopStarted = System.nanoTime();
+            }
+            wakeupScheduled.set(false);
+            sendMessagesToClients();
+            deliverPendingEvents();
+            deliverHeldMessages();
+            // only the work after the wakeup counts, the time spent blocked in select() is idle time
+            loopTime.record(System.nanoTime() - loopStarted);
+        } catch (ClientCommunicationException ex) {
+            var key = ex.getSocketChannel().keyFor(selector);
+            var connection = key == null ? null : (Connection) key.attachment();
+            log.error("Error in client communication:{}", connection == null ? null : connection.address(), ex);
+            if (connection != null) {
+                disconnect(connection.address());
+            }
+        } catch (Exception ex) {
+            log.error("Unexpected error:{}", ex.getMessage(), ex);
+        }
+    }
+
+    private void registerAcceptedChannels() {
+        SocketChannel clientChannel;
+        while ((clientChannel = acceptedChannels.poll()) != null) {
+            try {
+                clientChannel.configureBlocking(false);
+                var remoteAddress = clientChannel.getRemoteAddress();
+                var connection = new Connection(
+                        clientChannel,
+                        remoteAddress,
+                        bufferPool.acquire(INITIAL_READ_BUFFER_SIZE));
+                connection.setKey(clientChannel.register(selector, SelectionKey.OP_READ, connection));
+
+                log.debug("Reactor:{}. Registered client:{}", id, remoteAddress);
+                clients.put(remoteAddress, connection);
+                acceptedConnections.mark(1);
+                if (!server.connected(remoteAddress, this)) {
+                    pendingEvents.add(ClientEvent.connected(remoteAddress));
+                }
+            } catch (Exception ex) {
+                log.error("Reactor:{}. Can't register client:{}", id, clientChannel, ex);
+                clientsCount.decrementAndGet();
+                closeChannel(clientChannel);
+            }
+        }
+    }
+
+    private void disconnect(SocketAddress clientAddress) {
+        var connection = clients.remove(clientAddress);
+        if (connection == null) {
+            return;
+        }
+        clientsCount.decrementAndGet();
+        closeChannel(connection.channel());
+        connection.release();
+        log.debug("Reactor:{}. Disconnected client:{}", id, clientAddress);
+        // like a message, the event must not overtake a connection event still waiting to be accepted
+        if (!pendingEvents.isEmpty()) {
+            server.forget(clientAddress);
+            pendingEvents.add(ClientEvent.disconnected(clientAddress));
+        } else if (!server.disconnected(clientAddress)) {
+            pendingEvents.add(ClientEvent.disconnected(clientAddress));
+        }
+    }
+
+    private void closeChannel(SocketChannel clientChannel) {
+        try {
+            clientChannel.close();
+        } catch (IOException e) {
+            log.error("clientChannel:{}, closing error:{}", clientChannel, e.getMessage(), e);
+        }
+    }
+
+    private void performIO(SelectionKey selectionKey) {
+        if (loopStarted == 0) {
+            loopStarted = System.nanoTime();
+        }
+        var connection = (Connection) selectionKey.attachment();
+        if (selectionKey.isValid() && selectionKey.isWritable()) {
+            flush(connection);
+        }
+        if (selectionKey.isValid() && selectionKey.isReadable()) {
+            readFromClient(connection);
+        }
+    }
+
+    private void readFromClient(Connection connection) {
+        log.debug("{}. Reading from client", connection.address());
+
+        var readBytesTotal = 0;
+        try {
+            int readBytes = 0;
+            while (readBytesTotal < MESSAGE_SIZE_LIMIT_BYTES
+                   && !connection.isReadPaused()
+                   && (readBytes = connection.channel().read(connection.readBuffer().buffer())) > 0) {
+                readBytesTotal += readBytes;
+                parseFrames(connection);
+            }
+            bytesIn.mark(readBytesTotal);
+            if (readBytes < 0) {
+                disconnect(connection.address());
+            }
+        } catch (IOException ex) {
+            throw new ClientCommunicationException("Error occurred while reading the message", ex, connection.channel());
+        }
+    }
+
+    private void parseFrames(Connection connection) {
+        var buffer = connection.readBuffer().buffer();
+        buffer.flip();
+        framesCount = 0;
+        var errors = connection.parsingState().errors();
+        var frames = parser.parseMessage(connection.parsingState(), buffer, this);
+        if (connection.parsingState().errors() != errors) {
+            parserErrors.mark(connection.parsingState().errors() - errors);
+        }
+        if (framesCount > 0) {
+            framesIn.mark(framesCount);
+            // every frame of this read goes to the processors as one batch, so their replies leave in one write
+            var readBuffer = connection.readBuffer().retain();
+            var message = new ClientMessage(connection.address(), readBuffer, Arrays.copyOf(frameBounds, framesCount * 2));
+            // a message must not overtake the connection events still waiting to be accepted
+            if (!pendingEvents.isEmpty() || !server.received(message)) {
+                // processing is behind: keep the batch and stop reading until it is taken
+                connection.holdMessage(message);
+                connectionsWithHeldMessages.add(connection);
+                connection.updateInterest(outboundHighWaterMark);
+            }
+        }
+
+        var requiredSize = Math.max(connection.parsingState().pendingFrameSize(), INITIAL_READ_BUFFER_SIZE);
+        if (frames > 0 || requiredSize > buffer.capacity()) {
+            // frames handed over to the processors still point into this buffer, so the leftover moves to a new one
+            connection.replaceReadBuffer(bufferPool.acquire(Math.max(requiredSize, buffer.remaining())));
+        } else {
+            buffer.compact();
+        }
+    }
+
+    @Override
+    public void onFrame(ByteBuffer buffer, int offset, int length) {
+        if (framesCount * 2 == frameBounds.length) {
+            frameBounds = Arrays.copyOf(frameBounds, frameBounds.length * 2);
+        }
+        frameBounds[framesCount * 2] = offset;
+        frameBounds[framesCount * 2 + 1] = length;
+        framesCount++;
+    }
+
+    // in arrival order, stopping at the first one still rejected
+    private void deliverPendingEvents() {
+        var delivered = 0;
+        while (delivered < pendingEvents.size() && server.redeliver(pendingEvents.get(delivered))) {
+            delivered++;
+        }
+        pendingEvents.subList(0, delivered).clear();
+    }
+
+    private void deliverHeldMessages() {
+        if (!pendingEvents.isEmpty()) {
+            return;
+        }
+        for (var idx = connectionsWithHeldMessages.size() - 1; idx >= 0; idx--) {
+            var connection = connectionsWithHeldMessages.get(idx);
+            var message = connection.heldMessage();
+            if (message == null || server.received(message)) {
+                connection.holdMessage(null);
+                connectionsWithHeldMessages.remove(idx);
+                connection.updateInterest(outboundHighWaterMark);
+            }
+        }
+    }
+
+    private void sendMessagesToClients() {
+        ServerMessage msg;
+        while ((msg = messagesForClients.poll()) != null) {
+            var client = clients.get(msg.clientAddress());
+            if (client == null) {
+                log.error("Client {} not found", msg.clientAddress());
+                msg.message().release();
+            } else {
+                if (!client.hasPendingWrites()) {
+                    connectionsToFlush.add(client);
+                }
+                client.enqueue(msg.message());
+            }
+        }
+        for (var idx = 0; idx < connectionsToFlush.size(); idx++) {
+            flush(connectionsToFlush.get(idx));
+        }
+        connectionsToFlush.clear();
+    }
+
+    private void flush(Connection connection) {
+        log.debug("Writing to client:{}, pendingBytes:{}", connection.address(), connection.pendingBytes());
+        try {
+            bytesOut.mark(connection.flush(gather));
+            connection.updateInterest(outboundHighWaterMark);
+        } catch (Exception ex) {
+            log.error("Write to the client:{} error", connection.address(), ex);
+            disconnect(connection.address());
+        }
+    }
+}
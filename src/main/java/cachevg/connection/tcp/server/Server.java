@@ -1,20 +1,16 @@
 package cachevg.connection.tcp.server;
 
-import cachevg.connection.tcp.server.message.ClientMessage;
-
 import java.net.SocketAddress;
-import java.util.Queue;
+import java.nio.ByteBuffer;
 
 public interface Server {
     void start();
 
     void stop();
 
-    Queue<SocketAddress> getConnectedClientsEvents();
-
-    Queue<SocketAddress> getDisconnectedClientsEvents();
-
-    Queue<ClientMessage> getMessagesFromClients();
+    void setClientEventsListener(ClientEventsListener listener);
 
     boolean send(SocketAddress clientAddress, byte[] data);
+
+    boolean send(SocketAddress clientAddress, ByteBuffer data);
 }
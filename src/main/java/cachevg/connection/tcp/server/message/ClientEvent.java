@@ -0,0 +1,24 @@
+package cachevg.connection.tcp.server.message;
+
+import java.net.SocketAddress;
+
+public record ClientEvent(Kind kind, SocketAddress clientAddress, ClientMessage message) {
+
+    public enum Kind {
+        CONNECTED,
+        MESSAGE,
+        DISCONNECTED
+    }
+
+    public static ClientEvent connected(SocketAddress clientAddress) {
+        return new ClientEvent(Kind.CONNECTED, clientAddress, null);
+    }
+
+    public static ClientEvent message(ClientMessage message) {
+        return new ClientEvent(Kind.MESSAGE, message.clientAddress(), message);
+    }
+
+    public static ClientEvent disconnected(SocketAddress clientAddress) {
+        return new ClientEvent(Kind.DISCONNECTED, clientAddress, null);
+    }
+}
@@ -1,28 +1,38 @@
 package cachevg.connection.tcp.server.message;
 
+import cachevg.buffer.PooledBuffer;
+
 import java.net.SocketAddress;
-import java.util.Arrays;
-import java.util.Objects;
 
-public record ClientMessage(SocketAddress clientAddress, byte[] message) {
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        ClientMessage that = (ClientMessage) o;
-        return Objects.equals(clientAddress, that.clientAddress) && Arrays.equals(message, that.message);
+// all frames parsed from one read, stored as offset/length pairs into the shared buffer
+public record ClientMessage(SocketAddress clientAddress, PooledBuffer buffer, int[] frames) {
+
+    public int frameCount() {
+        return frames.length / 2;
     }
 
-    @Override
-    public int hashCode() {
-        int result = Objects.hash(clientAddress);
-        result = 31 * result + Arrays.hashCode(message);
-        return result;
+    public int offset(int frame) {
+        return frames[frame * 2];
+    }
+
+    public int length(int frame) {
+        return frames[frame * 2 + 1];
+    }
+
+    public byte[] message(int frame) {
+        var message = new byte[length(frame)];
+        buffer.buffer().get(offset(frame), message);
+        return message;
+    }
+
+    public void release() {
+        buffer.release();
     }
 
     @Override
     public String toString() {
         return "ClientMessage{" + "clientAddress=" + clientAddress +
+               ", frames=" + frameCount() +
                '}';
     }
 }
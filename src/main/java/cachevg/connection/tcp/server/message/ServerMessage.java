@@ -1,24 +1,10 @@
 package cachevg.connection.tcp.server.message;
 
-import java.net.SocketAddress;
-import java.util.Arrays;
-import java.util.Objects;
+import cachevg.buffer.PooledBuffer;
 
-public record ServerMessage(SocketAddress clientAddress, byte[] message) {
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        ServerMessage that = (ServerMessage) o;
-        return Objects.equals(clientAddress, that.clientAddress) && Arrays.equals(message, that.message);
-    }
+import java.net.SocketAddress;
 
-    @Override
-    public int hashCode() {
-        int result = Objects.hash(clientAddress);
-        result = 31 * result + Arrays.hashCode(message);
-        return result;
-    }
+public record ServerMessage(SocketAddress clientAddress, PooledBuffer message) {
 
     @Override
     public String toString() {
@@ -0,0 +1,82 @@
+package cachevg.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// log-linear buckets in the spirit of HdrHistogram: every power of two is split into 16 linear sub-buckets,
+// which bounds the relative error of a reported percentile to 1/16 without allocating on record()
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int MAX_MAGNITUDE = 40;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        counts.getAndIncrement(index(nanos));
+        sum.add(nanos);
+        var currentMax = max.get();
+        while (nanos > currentMax && !max.compareAndSet(currentMax, nanos)) {
+            currentMax = max.get();
+        }
+    }
+
+    public LatencySnapshot snapshot() {
+        var buckets = new long[BUCKETS];
+        var count = 0L;
+        for (var idx = 0; idx < BUCKETS; idx++) {
+            buckets[idx] = counts.get(idx);
+            count += buckets[idx];
+        }
+        return new LatencySnapshot(
+                count,
+                count == 0 ? 0 : (double) sum.sum() / count,
+                percentile(buckets, count, 0.50),
+                percentile(buckets, count, 0.90),
+                percentile(buckets, count, 0.99),
+                percentile(buckets, count, 0.999),
+                max.get());
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+        var magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKETS - 1;
+        }
+        var shift = magnitude - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKETS + (magnitude - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS + (int) (value >>> shift) - HALF_SUB_BUCKETS;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        var offset = index - SUB_BUCKETS;
+        var magnitude = offset / HALF_SUB_BUCKETS + SUB_BUCKET_BITS;
+        var subBucket = offset % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        return ((subBucket + 1L) << (magnitude - (SUB_BUCKET_BITS - 1))) - 1;
+    }
+
+    private long percentile(long[] buckets, long count, double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        var rank = (long) Math.ceil(quantile * count);
+        var seen = 0L;
+        for (var idx = 0; idx < BUCKETS; idx++) {
+            seen += buckets[idx];
+            if (seen >= rank) {
+                return Math.min(upperBound(idx), max.get());
+            }
+        }
+        return max.get();
+    }
+}
@@ -0,0 +1,4 @@
+package cachevg.metrics;
+
+public record LatencySnapshot(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+}
@@ -0,0 +1,45 @@
+package cachevg.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+public final class Meter {
+    private static final long MIN_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final LongAdder count = new LongAdder();
+    private final Lock rateLock = new ReentrantLock();
+    private long windowStart = System.nanoTime();
+    private long windowCount;
+    private double rate = Double.NaN;
+
+    public void mark(long events) {
+        count.add(events);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    // average rate since the window was last closed; a window closes when it is read at least a second after it opened
+    public double ratePerSecond() {
+        rateLock.lock();
+        try {
+            var now = System.nanoTime();
+            var elapsed = now - windowStart;
+            if (elapsed >= MIN_WINDOW_NANOS) {
+                var current = count.sum();
+                rate = (current - windowCount) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+                windowStart = now;
+                windowCount = current;
+            } else if (Double.isNaN(rate)) {
+                // no window has closed yet, report the average since the meter was created
+                return elapsed == 0 ? 0 : count.sum() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+            }
+            return rate;
+        } finally {
+            rateLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package cachevg.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+public class Metrics {
+    private final Map<String, Meter> meters = new ConcurrentSkipListMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+
+    public Meter meter(String name) {
+        return meters.computeIfAbsent(name, ignored -> new Meter());
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, ignored -> new LatencyHistogram());
+    }
+
+    public void gauge(String name, LongSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    // latencies are reported in microseconds
+    public Map<String, Number> snapshot() {
+        var snapshot = new LinkedHashMap<String, Number>();
+        gauges.forEach((name, gauge) -> snapshot.put(name, gauge.getAsLong()));
+        meters.forEach((name, meter) -> {
+            snapshot.put(name + ".total", meter.count());
+            snapshot.put(name + ".per_sec", round(meter.ratePerSecond()));
+        });
+        histograms.forEach((name, histogram) -> {
+            var latency = histogram.snapshot();
+            snapshot.put(name + ".count", latency.count());
+            snapshot.put(name + ".mean_us", micros(latency.mean()));
+            snapshot.put(name + ".p50_us", micros(latency.p50()));
+            snapshot.put(name + ".p90_us", micros(latency.p90()));
+            snapshot.put(name + ".p99_us", micros(latency.p99()));
+            snapshot.put(name + ".p999_us", micros(latency.p999()));
+            snapshot.put(name + ".max_us", micros(latency.max()));
+        });
+        return snapshot;
+    }
+
+    private static double micros(double nanos) {
+        return round(nanos / 1000);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,79 @@
+package cachevg.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+
+// every entry of the metrics snapshot becomes a read-only attribute
+public class MetricsMBean implements DynamicMBean {
+    private final Metrics metrics;
+
+    public MetricsMBean(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        var value = metrics.snapshot().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        var snapshot = metrics.snapshot();
+        var result = new AttributeList();
+        for (var attribute : attributes) {
+            var value = snapshot.get(attribute);
+            if (value != null) {
+                result.add(new Attribute(attribute, value));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName), "Metrics have no operations");
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        var snapshot = metrics.snapshot();
+        var attributes = new MBeanAttributeInfo[snapshot.size()];
+        var idx = 0;
+        for (var entry : snapshot.entrySet()) {
+            attributes[idx++] = new MBeanAttributeInfo(
+                    entry.getKey(),
+                    entry.getValue().getClass().getName(),
+                    entry.getKey(),
+                    true,
+                    false,
+                    false);
+        }
+        return new MBeanInfo(
+                getClass().getName(),
+                "CacheVG server metrics",
+                attributes,
+                null,
+                new MBeanOperationInfo[0],
+                null);
+    }
+}
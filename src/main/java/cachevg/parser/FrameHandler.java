@@ -0,0 +1,8 @@
+package cachevg.parser;
+
+import java.nio.ByteBuffer;
+
+@FunctionalInterface
+public interface FrameHandler {
+    void onFrame(ByteBuffer buffer, int offset, int length);
+}
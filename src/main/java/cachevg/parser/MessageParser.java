@@ -1,7 +1,6 @@
 package cachevg.parser;
 
-import java.net.SocketAddress;
-import java.util.List;
+import java.nio.ByteBuffer;
 
 public interface MessageParser {
 
@@ -12,10 +11,13 @@ public interface MessageParser {
     int HEADER_INDEX = 0;
     int LENGTH_INDEX = 1;
     int BEGIN_MESSAGE_INDEX = 5;
+    int FRAME_OVERHEAD = BEGIN_MESSAGE_INDEX + 2;
+    // the largest message length the server accepts, clients keep their requests within it
+    int MAX_MESSAGE_SIZE = 1024 * 1024;
 
-    List<byte[]> parseMessage(SocketAddress clientAddress, byte[] message);
+    int parseMessage(ParsingState state, ByteBuffer buffer, FrameHandler handler);
 
-    void newMessage(SocketAddress clientAddress);
+    int maxMessageSize();
 
-    void cleanMessagesMap(SocketAddress client);
-}
\ No newline at end of file
+    byte[] encode(byte[] message);
+}
@@ -0,0 +1,17 @@
+package cachevg.parser;
+
+public final class ParsingState {
+    ParsingPhase phase = ParsingPhase.HEADER;
+    int expectedLength;
+    long errors;
+
+    public int pendingFrameSize() {
+        return phase == ParsingPhase.HEADER || phase == ParsingPhase.LENGTH
+                ? 0
+                : MessageParser.FRAME_OVERHEAD + expectedLength;
+    }
+
+    public long errors() {
+        return errors;
+    }
+}
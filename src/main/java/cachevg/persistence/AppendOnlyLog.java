@@ -0,0 +1,459 @@
+package cachevg.persistence;
+
+import cachevg.exception.technical.ServerProcessingError;
+import cachevg.metrics.LatencyHistogram;
+import cachevg.metrics.Meter;
+import cachevg.metrics.Metrics;
+import cachevg.storage.Key;
+import cachevg.storage.MutationListener;
+import cachevg.storage.Storage;
+import cachevg.storage.Value;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class AppendOnlyLog implements MutationListener {
+    private static final Logger log = LogManager.getLogger(AppendOnlyLog.class);
+    private static final byte[] MAGIC = "CVGAOF01".getBytes(StandardCharsets.US_ASCII);
+    private static final long SYNC_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int REWRITE_FLUSH_BYTES = 1024 * 1024;
+    private static final long WRITE_RETRY_PAUSE_MS = 100;
+
+    private final Path path;
+    private final FsyncPolicy fsyncPolicy;
+    private final long rewriteMinBytes;
+    private final int rewritePercentage;
+    private final Storage storage;
+    private final LatencyHistogram fsyncLatency;
+    private final Meter bytesWritten;
+    private final Meter rewrites;
+    // appenders only touch appendLock; file I/O happens under ioLock, taken before appendLock when both are needed
+    private final Lock appendLock = new ReentrantLock();
+    private final Condition appended = appendLock.newCondition();
+    private final Condition synced = appendLock.newCondition();
+    private final Lock ioLock = new ReentrantLock();
+    private final AtomicBoolean rewriting = new AtomicBoolean();
+    private final ThreadLocal<long[]> lastAppended = ThreadLocal.withInitial(() -> new long[1]);
+    private RecordBuffer pending = new RecordBuffer();
+    private RecordBuffer writing = new RecordBuffer();
+    // mutations applied while a rewrite dumps the keyspace, appended to the rewritten file at the end
+    private RecordBuffer rewriteTail;
+    private long appendedRecords;
+    private long durableRecords;
+    private int generation;
+    private FileChannel channel;
+    private volatile long size;
+    private long baseSize;
+    private volatile boolean running;
+    private Thread writer;
+
+    public AppendOnlyLog(
+            Path path,
+            FsyncPolicy fsyncPolicy,
+            long rewriteMinBytes,
+            int rewritePercentage,
+            Storage storage,
+            Metrics metrics) {
+        this.path = path;
+        this.fsyncPolicy = fsyncPolicy;
+        this.rewriteMinBytes = rewriteMinBytes;
+        this.rewritePercentage = rewritePercentage;
+        this.storage = storage;
+        this.fsyncLatency = metrics.histogram("aof.fsync");
+        this.bytesWritten = metrics.meter("aof.bytes_written");
+        this.rewrites = metrics.meter("aof.rewrites");
+        metrics.gauge("aof.size_bytes", () -> size);
+    }
+
+    // replays the log into the storage, then starts logging its mutations. A log without records, e.g. one
+    // switched on for the first time, leaves the keyspace to seed, and what seed loads is dumped into the log
+    // before anything else is appended, so that the next start finds it there
+    public void open(Runnable seed) {
+        boolean seeded;
+        try {
+            var start = System.nanoTime();
+            var validLength = Files.exists(path) ? replay() : 0;
+            seeded = validLength <= MAGIC.length;
+            if (seeded) {
+                seed.run();
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (validLength == 0) {
+                channel.truncate(0);
+                writeHeader(channel);
+            } else if (channel.size() > validLength) {
+                log.warn("Append only log has a truncated tail, cutting it at {} of {} bytes", validLength, channel.size());
+                channel.truncate(validLength);
+            }
+            channel.position(channel.size());
+            size = baseSize = channel.size();
+            log.info(
+                    "Append only log opened, path:{}, fsync:{}, entries:{}, took ms:{}",
+                    path,
+                    fsyncPolicy,
+                    storage.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException ex) {
+            throw new ServerProcessingError(ex);
+        }
+        running = true;
+        storage.addMutationListener(this);
+        writer = Thread.ofPlatform().name("aof-writer").start(this::writeLoop);
+        if (seeded && storage.size() > 0) {
+            rewriting.set(true);
+            rewriteFromStorage();
+        }
+    }
+
+    public void close() {
+        if (!running) {
+            return;
+        }
+        storage.removeMutationListener(this);
+        appendLock.lock();
+        try {
+            running = false;
+            appended.signal();
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            writer.join();
+            ioLock.lock();
+            try {
+                channel.force(true);
+                channel.close();
+            } finally {
+                ioLock.unlock();
+            }
+            log.info("Append only log closed, size:{}", size);
+        } catch (IOException ex) {
+            log.error("Failed to close append only log", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void onPut(Key key, Value value) {
+        long record;
+        appendLock.lock();
+        try {
+            pending.put(key, value);
+            if (rewriteTail != null) {
+                rewriteTail.put(key, value);
+            }
+            record = ++appendedRecords;
+            appended.signal();
+        } finally {
+            appendLock.unlock();
+        }
+        lastAppended.get()[0] = record;
+    }
+
+    @Override
+    public void onRemove(Key key) {
+        long record;
+        appendLock.lock();
+        try {
+            pending.remove(key);
+            if (rewriteTail != null) {
+                rewriteTail.remove(key);
+            }
+            record = ++appendedRecords;
+            appended.signal();
+        } finally {
+            appendLock.unlock();
+        }
+        lastAppended.get()[0] = record;
+    }
+
+    // with the ALWAYS policy blocks until the mutations made by the calling thread are on disk;
+    // callers invoke it once per batch of commands, so concurrent batches share one fsync
+    public void awaitDurable() {
+        var last = lastAppended.get();
+        if (fsyncPolicy != FsyncPolicy.ALWAYS || last[0] == 0) {
+            return;
+        }
+        appendLock.lock();
+        try {
+            while (durableRecords < last[0] && running) {
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        last[0] = 0;
+    }
+
+    public void rewrite() {
+        if (rewriting.compareAndSet(false, true)) {
+            Thread.ofPlatform().name("aof-rewrite").daemon().start(this::rewriteFromStorage);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    private void writeLoop() {
+        var lastSync = System.nanoTime();
+        var unsynced = false;
+        while (true) {
+            RecordBuffer batch;
+            long batchRecords;
+            int batchGeneration;
+            appendLock.lock();
+            try {
+                if (pending.isEmpty() && running) {
+                    appended.awaitNanos(SYNC_INTERVAL_NANOS);
+                }
+                if (pending.isEmpty() && !running) {
+                    break;
+                }
+                // everything appended while the previous batch was being written goes out with a single write and fsync
+                batch = pending;
+                pending = writing;
+                writing = batch;
+                batchRecords = appendedRecords;
+                batchGeneration = generation;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                appendLock.unlock();
+            }
+            // a batch that failed to reach the disk is written again, its waiters are not released before that
+            var written = false;
+            while (!written) {
+                ioLock.lock();
+                var start = size;
+                try {
+                    if (batchGeneration != generation) {
+                        // a rewrite has replaced the file, and the rewritten file already holds these records
+                        batch.clear();
+                    } else if (!batch.isEmpty()) {
+                        var bytes = batch.size();
+                        batch.copyTo(channel);
+                        size += bytes;
+                        bytesWritten.mark(bytes);
+                        unsynced = true;
+                    }
+                    var now = System.nanoTime();
+                    if (unsynced && (fsyncPolicy == FsyncPolicy.ALWAYS
+                                     || fsyncPolicy == FsyncPolicy.EVERYSEC && now - lastSync >= SYNC_INTERVAL_NANOS)) {
+                        channel.force(false);
+                        lastSync = System.nanoTime();
+                        fsyncLatency.record(lastSync - now);
+                        unsynced = false;
+                    }
+                    batch.clear();
+                    written = true;
+                } catch (IOException ex) {
+                    log.error("Failed to write append only log, records:{}", batchRecords, ex);
+                    discardTail(start);
+                } finally {
+                    ioLock.unlock();
+                }
+                if (!written && !pauseBeforeRetry()) {
+                    log.error("Append only log is closed with unwritten records, up to:{}", batchRecords);
+                    batch.clear();
+                    releaseWaiters();
+                    return;
+                }
+            }
+            markDurable(batchRecords);
+            if (needsRewrite()) {
+                rewrite();
+            }
+        }
+    }
+
+    // a partly written batch would leave a torn record in the middle of the log
+    private void discardTail(long validSize) {
+        try {
+            channel.truncate(validSize);
+            channel.position(validSize);
+            size = validSize;
+        } catch (IOException ex) {
+            log.error("Failed to cut append only log at {}", validSize, ex);
+        }
+    }
+
+    private boolean pauseBeforeRetry() {
+        if (!running) {
+            return false;
+        }
+        try {
+            Thread.sleep(WRITE_RETRY_PAUSE_MS);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // after close, awaitDurable stops waiting for records that never made it
+    private void releaseWaiters() {
+        appendLock.lock();
+        try {
+            synced.signalAll();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void markDurable(long records) {
+        appendLock.lock();
+        try {
+            durableRecords = Math.max(durableRecords, records);
+            synced.signalAll();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private boolean needsRewrite() {
+        return rewritePercentage > 0
+               && size >= rewriteMinBytes
+               && size >= baseSize + baseSize * rewritePercentage / 100
+               && !rewriting.get();
+    }
+
+    private void rewriteFromStorage() {
+        var start = System.nanoTime();
+        var temp = path.resolveSibling(path.getFileName() + ".rewrite");
+        appendLock.lock();
+        try {
+            rewriteTail = new RecordBuffer();
+        } finally {
+            appendLock.unlock();
+        }
+        FileChannel rewritten = null;
+        try {
+            rewritten = FileChannel.open(
+                    temp,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            writeHeader(rewritten);
+            var records = new RecordBuffer();
+            var target = rewritten;
+            for (var shard = 0; shard < storage.shardsCount(); shard++) {
+                storage.forEachInShard(shard, (key, value) -> {
+                    records.put(key, value);
+                    if (records.size() >= REWRITE_FLUSH_BYTES) {
+                        records.writeToUnchecked(target);
+                    }
+                });
+            }
+            records.writeTo(rewritten);
+            ioLock.lock();
+            appendLock.lock();
+            try {
+                rewriteTail.writeTo(rewritten);
+                rewritten.force(true);
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel.close();
+                channel = rewritten;
+                generation++;
+                // pending records are covered either by the dump or by the tail
+                pending.clear();
+                size = baseSize = rewritten.size();
+                durableRecords = appendedRecords;
+                synced.signalAll();
+            } finally {
+                rewriteTail = null;
+                appendLock.unlock();
+                ioLock.unlock();
+            }
+            rewrites.mark(1);
+            log.info(
+                    "Append only log rewritten, size:{}, took ms:{}",
+                    size,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | UncheckedIOException ex) {
+            log.error("Failed to rewrite append only log", ex);
+            abandonRewrite(rewritten, temp);
+        } finally {
+            rewriting.set(false);
+        }
+    }
+
+    private void abandonRewrite(FileChannel rewritten, Path temp) {
+        appendLock.lock();
+        try {
+            rewriteTail = null;
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            if (rewritten != null && rewritten != channel) {
+                rewritten.close();
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException ex) {
+            log.warn("Failed to remove {}", temp, ex);
+        }
+    }
+
+    private static void writeHeader(FileChannel target) throws IOException {
+        var header = ByteBuffer.wrap(MAGIC);
+        while (header.hasRemaining()) {
+            target.write(header);
+        }
+    }
+
+    // returns the length of the valid prefix of the log, a torn last record is dropped
+    private long replay() throws IOException {
+        var now = System.currentTimeMillis();
+        var records = 0L;
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), READ_BUFFER_SIZE))) {
+            var magic = input.readNBytes(MAGIC.length);
+            if (magic.length < MAGIC.length) {
+                return 0;
+            }
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not an append only log: " + path);
+            }
+            long position = MAGIC.length;
+            while (true) {
+                var op = input.read();
+                if (op == -1) {
+                    break;
+                }
+                try {
+                    if (op != RecordBuffer.PUT && op != RecordBuffer.REMOVE) {
+                        throw new IOException("Unknown record " + op + " at " + position);
+                    }
+                    var length = RecordReader.apply(op, input, storage, now);
+                    position += length;
+                    records++;
+                } catch (EOFException ex) {
+                    break;
+                }
+            }
+            log.info("Append only log replayed, records:{}, bytes:{}", records, position);
+            return position;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package cachevg.persistence;
+
+public enum FsyncPolicy {
+    // a reply is sent only after the mutations it depends on are forced to disk
+    ALWAYS,
+    EVERYSEC,
+    // flushing is left to the operating system
+    OS
+}
@@ -0,0 +1,110 @@
+package cachevg.persistence;
+
+import cachevg.storage.Key;
+import cachevg.storage.Value;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+// growable buffer of encoded mutations: op, key length, key and, for PUT, type, expireAt, value length, value
+public final class RecordBuffer {
+    public static final byte PUT = 1;
+    public static final byte REMOVE = 2;
+
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024 * 1024;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+    public static int putBytes(Key key, Value value) {
+        return 1 + Integer.BYTES + key.getBytes().length + 1 + Long.BYTES + Integer.BYTES + value.length();
+    }
+
+    public static int removeBytes(Key key) {
+        return 1 + Integer.BYTES + key.getBytes().length;
+    }
+
+    public void put(Key key, Value value) {
+        var keyBytes = key.getBytes();
+        ensureCapacity(putBytes(key, value));
+        buffer.put(PUT).putInt(keyBytes.length).put(keyBytes);
+        buffer.put((byte) value.getType().ordinal()).putLong(value.getExpireAt()).putInt(value.length());
+        value.writeTo(buffer);
+    }
+
+    public void remove(Key key) {
+        var keyBytes = key.getBytes();
+        ensureCapacity(removeBytes(key));
+        buffer.put(REMOVE).putInt(keyBytes.length).put(keyBytes);
+    }
+
+    void append(RecordBuffer records) {
+        ensureCapacity(records.size());
+        buffer.put(records.buffer.array(), 0, records.size());
+    }
+
+    public int size() {
+        return buffer.position();
+    }
+
+    public boolean isEmpty() {
+        return buffer.position() == 0;
+    }
+
+    void writeTo(FileChannel channel) throws IOException {
+        copyTo(channel);
+        clear();
+    }
+
+    // leaves the records in the buffer, so a failed write can be repeated
+    void copyTo(FileChannel channel) throws IOException {
+        var records = buffer.duplicate().flip();
+        while (records.hasRemaining()) {
+            channel.write(records);
+        }
+    }
+
+    // for storage visitors, which cannot throw checked exceptions
+    void writeToUnchecked(FileChannel channel) {
+        try {
+            writeTo(channel);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public void writeTo(OutputStream output) throws IOException {
+        output.write(buffer.array(), 0, buffer.position());
+        clear();
+    }
+
+    public void writeToUnchecked(OutputStream output) {
+        try {
+            writeTo(output);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public void copyTo(int from, byte[] destination, int destinationOffset, int length) {
+        System.arraycopy(buffer.array(), from, destination, destinationOffset, length);
+    }
+
+    public void clear() {
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+        }
+        buffer.clear();
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (buffer.remaining() < bytes) {
+            var grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            grown.put(buffer.flip());
+            buffer = grown;
+        }
+    }
+}
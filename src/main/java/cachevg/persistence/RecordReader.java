@@ -0,0 +1,56 @@
+package cachevg.persistence;
+
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+import cachevg.storage.Value;
+import cachevg.types.Type;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+// reads the records written by RecordBuffer back into a storage
+public final class RecordReader {
+    private static final Type[] TYPES = Type.values();
+
+    private RecordReader() {
+    }
+
+    // reads the rest of the record behind the op byte and applies it; an expired PUT removes the key.
+    // Returns the length of the whole record, op byte included
+    public static int apply(int op, DataInputStream input, Storage storage, long now) throws IOException {
+        if (op != RecordBuffer.PUT && op != RecordBuffer.REMOVE) {
+            throw new IOException("Unknown record " + op);
+        }
+        var key = new Key(readBytes(input));
+        var length = 1 + Integer.BYTES + key.getBytes().length;
+        if (op == RecordBuffer.REMOVE) {
+            storage.remove(key);
+            return length;
+        }
+        var type = input.readUnsignedByte();
+        if (type >= TYPES.length) {
+            throw new IOException("Unknown value type " + type);
+        }
+        var expireAt = input.readLong();
+        var data = readBytes(input);
+        if (expireAt == 0 || expireAt > now) {
+            storage.put(key, Value.decode(TYPES[type], data, expireAt));
+        } else {
+            storage.remove(key);
+        }
+        return length + 1 + Long.BYTES + Integer.BYTES + data.length;
+    }
+
+    private static byte[] readBytes(DataInputStream input) throws IOException {
+        var length = input.readInt();
+        if (length < 0) {
+            throw new IOException("Negative length " + length);
+        }
+        var bytes = input.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException();
+        }
+        return bytes;
+    }
+}
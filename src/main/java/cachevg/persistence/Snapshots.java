@@ -0,0 +1,200 @@
+package cachevg.persistence;
+
+import cachevg.exception.technical.ServerProcessingError;
+import cachevg.metrics.LatencyHistogram;
+import cachevg.metrics.Metrics;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+import cachevg.storage.Value;
+import cachevg.types.Type;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// file layout: magic, section count, (offset, length) of every section, then one section of PUT records per shard
+public class Snapshots {
+    private static final Logger log = LogManager.getLogger(Snapshots.class);
+    private static final byte[] MAGIC = "CVGSNP01".getBytes(StandardCharsets.US_ASCII);
+    private static final int SECTION_INDEX_ENTRY = 2 * Long.BYTES;
+    private static final int FLUSH_BYTES = 1024 * 1024;
+
+    private final Path path;
+    private final Storage storage;
+    private final int loadThreads;
+    private final LatencyHistogram saveLatency;
+    private final AtomicBoolean saving = new AtomicBoolean();
+    private volatile long lastSaveMillis;
+
+    public Snapshots(Path path, Storage storage, int loadThreads, Metrics metrics) {
+        this.path = path;
+        this.storage = storage;
+        this.loadThreads = loadThreads;
+        this.saveLatency = metrics.histogram("snapshot.save");
+        metrics.gauge("snapshot.last_save_ms", () -> lastSaveMillis);
+    }
+
+    // both return false when another snapshot is being written
+    public boolean save() {
+        if (!saving.compareAndSet(false, true)) {
+            return false;
+        }
+        writeAndRelease();
+        return true;
+    }
+
+    public boolean saveInBackground() {
+        if (!saving.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofPlatform().name("snapshot").daemon().start(this::writeAndRelease);
+        return true;
+    }
+
+    public long lastSaveMillis() {
+        return lastSaveMillis;
+    }
+
+    private void writeAndRelease() {
+        try {
+            write();
+        } catch (IOException | UncheckedIOException ex) {
+            log.error("Failed to write snapshot {}", path, ex);
+        } finally {
+            saving.set(false);
+        }
+    }
+
+    // every shard is copied under its own lock in turn, so processing never stops for the whole keyspace
+    private void write() throws IOException {
+        var start = System.nanoTime();
+        var temp = path.resolveSibling(path.getFileName() + ".tmp");
+        var sections = storage.shardsCount();
+        var index = ByteBuffer.allocate(MAGIC.length + Integer.BYTES + sections * SECTION_INDEX_ENTRY);
+        index.put(MAGIC).putInt(sections);
+        try (var channel = FileChannel.open(
+                temp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(index.capacity());
+            var records = new RecordBuffer();
+            for (var shard = 0; shard < sections; shard++) {
+                var sectionStart = channel.position();
+                storage.forEachInShard(shard, (key, value) -> {
+                    records.put(key, value);
+                    if (records.size() >= FLUSH_BYTES) {
+                        records.writeToUnchecked(channel);
+                    }
+                });
+                records.writeTo(channel);
+                index.putLong(sectionStart).putLong(channel.position() - sectionStart);
+            }
+            index.flip();
+            var position = 0L;
+            while (index.hasRemaining()) {
+                position += channel.write(index, position);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        var elapsed = System.nanoTime() - start;
+        saveLatency.record(elapsed);
+        lastSaveMillis = System.currentTimeMillis();
+        log.info("Snapshot saved, path:{}, bytes:{}, took ms:{}", path, Files.size(path), TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    // sections are mapped and decoded in parallel, one task per section
+    public void load() {
+        if (!Files.exists(path)) {
+            return;
+        }
+        var start = System.nanoTime();
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ);
+             var executor = Executors.newFixedThreadPool(
+                     loadThreads,
+                     Thread.ofPlatform().name("snapshot-loader-", 0).factory())) {
+            var header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), MAGIC.length + Integer.BYTES));
+            var magic = new byte[MAGIC.length];
+            if (header.remaining() == magic.length + Integer.BYTES) {
+                header.get(magic);
+            }
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a snapshot: " + path);
+            }
+            var sections = header.getInt();
+            var index = channel.map(FileChannel.MapMode.READ_ONLY, header.capacity(), (long) sections * SECTION_INDEX_ENTRY);
+            var tasks = new ArrayList<Callable<Long>>(sections);
+            for (var section = 0; section < sections; section++) {
+                var offset = index.getLong();
+                var length = index.getLong();
+                if (length > Integer.MAX_VALUE) {
+                    throw new IOException("Snapshot section " + section + " is too large to map: " + length);
+                }
+                var mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                tasks.add(() -> decode(mapped));
+            }
+            var entries = 0L;
+            for (var result : executor.invokeAll(tasks)) {
+                entries += result.get();
+            }
+            log.info(
+                    "Snapshot loaded, path:{}, entries:{}, sections:{}, took ms:{}",
+                    path,
+                    entries,
+                    sections,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException ex) {
+            throw new ServerProcessingError(ex);
+        } catch (ExecutionException ex) {
+            throw new ServerProcessingError(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServerProcessingError(ex);
+        }
+    }
+
+    private long decode(ByteBuffer section) throws IOException {
+        var types = Type.values();
+        var now = System.currentTimeMillis();
+        var entries = 0L;
+        while (section.hasRemaining()) {
+            if (section.get() != RecordBuffer.PUT) {
+                throw new IOException("Corrupted snapshot section at " + section.position());
+            }
+            var key = new Key(bytes(section));
+            var type = section.get() & 0xFF;
+            if (type >= types.length) {
+                throw new IOException("Unknown value type " + type + " at " + section.position());
+            }
+            var expireAt = section.getLong();
+            var data = bytes(section);
+            if (expireAt == 0 || expireAt > now) {
+                storage.put(key, Value.decode(types[type], data, expireAt));
+                entries++;
+            }
+        }
+        return entries;
+    }
+
+    private static byte[] bytes(ByteBuffer section) {
+        var bytes = new byte[section.getInt()];
+        section.get(bytes);
+        return bytes;
+    }
+}
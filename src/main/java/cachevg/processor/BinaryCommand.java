@@ -0,0 +1,78 @@
+package cachevg.processor;
+
+import cachevg.storage.Key;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// opcode:byte, then every argument as length:int followed by the argument bytes
+public final class BinaryCommand {
+    private static final int INITIAL_ARGUMENTS = 8;
+
+    private int[] offsets = new int[INITIAL_ARGUMENTS];
+    private int[] lengths = new int[INITIAL_ARGUMENTS];
+    private ByteBuffer buffer;
+    private byte opcode;
+    private int arguments;
+
+    public boolean parse(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.opcode = buffer.get(offset);
+        this.arguments = 0;
+        var end = offset + length;
+        var position = offset + 1;
+        while (position < end) {
+            if (end - position < Integer.BYTES) {
+                return false;
+            }
+            var argumentLength = buffer.getInt(position);
+            position += Integer.BYTES;
+            if (argumentLength < 0 || argumentLength > end - position) {
+                return false;
+            }
+            if (arguments == offsets.length) {
+                offsets = Arrays.copyOf(offsets, arguments * 2);
+                lengths = Arrays.copyOf(lengths, arguments * 2);
+            }
+            offsets[arguments] = position;
+            lengths[arguments] = argumentLength;
+            arguments++;
+            position += argumentLength;
+        }
+        return true;
+    }
+
+    public byte opcode() {
+        return opcode;
+    }
+
+    public int arguments() {
+        return arguments;
+    }
+
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public int offset(int argument) {
+        return offsets[argument];
+    }
+
+    public int length(int argument) {
+        return lengths[argument];
+    }
+
+    public byte[] bytes(int argument) {
+        var bytes = new byte[lengths[argument]];
+        buffer.get(offsets[argument], bytes);
+        return bytes;
+    }
+
+    public Key key(int argument) {
+        return new Key(bytes(argument));
+    }
+
+    public long longArgument(int argument) {
+        return lengths[argument] == Long.BYTES ? buffer.getLong(offsets[argument]) : -1;
+    }
+}
@@ -0,0 +1,5 @@
+package cachevg.processor;
+
+public interface BinaryProcessor {
+    void process(BinaryCommand command, ReplyWriter reply);
+}
@@ -0,0 +1,84 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.tracking.KeyTracker;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static cachevg.command.CommandNames.*;
+
+// CLIENT COMPRESSION ON|OFF makes GET send compressed values as stored, with the COMPRESSED_VALUE reply code,
+// so the server does not inflate them. CLIENT TRACKING ON [prefix...] | OFF has INVALIDATE_BUCKET frames pushed
+// to the connection when keys it read change, or INVALIDATE frames for keys under the prefixes. Settings belong
+// to the connection and only binary replies can carry them
+public class ClientCommandProcessor implements Processor, BinaryProcessor {
+    private final KeyTracker tracker;
+
+    public ClientCommandProcessor(KeyTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public String process(String[] args) {
+        return args.length < 2 ? Replies.wrongArguments(CLIENT) : Replies.CLIENT_IS_BINARY;
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() < 2) {
+            reply.error(Replies.wrongArguments(CLIENT));
+            return;
+        }
+        var subcommand = string(command, 0).toUpperCase(Locale.ROOT);
+        var setting = string(command, 1).toUpperCase(Locale.ROOT);
+        var on = setting.equals(ON);
+        if (!on && !setting.equals(OFF)) {
+            reply.error(Replies.wrongArguments(CLIENT + " " + subcommand));
+            return;
+        }
+        switch (subcommand) {
+            case COMPRESSION -> {
+                if (command.arguments() != 2) {
+                    reply.error(Replies.wrongArguments(CLIENT + " " + subcommand));
+                    return;
+                }
+                reply.session().acceptCompressedValues(on);
+                reply.ok();
+            }
+            case TRACKING -> tracking(command, reply, on);
+            default -> reply.error(Replies.unknownCommand(CLIENT + " " + subcommand));
+        }
+    }
+
+    private void tracking(BinaryCommand command, ReplyWriter reply, boolean on) {
+        if (tracker == null) {
+            reply.error(Replies.TRACKING_DISABLED);
+            return;
+        }
+        if (!on) {
+            if (command.arguments() != 2) {
+                reply.error(Replies.wrongArguments(CLIENT + " " + TRACKING));
+                return;
+            }
+            reply.session().stopTracking();
+            reply.ok();
+            return;
+        }
+        List<byte[]> prefixes = new ArrayList<>();
+        for (var argument = 2; argument < command.arguments(); argument++) {
+            prefixes.add(command.bytes(argument));
+        }
+        if (reply.session().startTracking(tracker, prefixes)) {
+            reply.ok();
+        } else {
+            reply.error(Replies.TRACKING_TABLE_FULL);
+        }
+    }
+
+    private static String string(BinaryCommand command, int argument) {
+        return new String(command.bytes(argument), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,70 @@
+package cachevg.processor;
+
+import cachevg.tracking.KeyTracker;
+
+import java.net.SocketAddress;
+import java.util.List;
+
+// what a connection negotiated with CLIENT; lives from its first event until it disconnects
+public final class ClientSession {
+    private final SocketAddress address;
+    private volatile boolean compressedValues;
+    private volatile KeyTracker tracker;
+    private volatile int trackingId = -1;
+    private volatile boolean trackingReads;
+
+    public ClientSession(SocketAddress address) {
+        this.address = address;
+    }
+
+    public SocketAddress address() {
+        return address;
+    }
+
+    public boolean acceptsCompressedValues() {
+        return compressedValues;
+    }
+
+    public void acceptCompressedValues(boolean compressedValues) {
+        this.compressedValues = compressedValues;
+    }
+
+    // returns false when the tracking table has no room for another connection
+    public boolean startTracking(KeyTracker tracker, List<byte[]> prefixes) {
+        stopTracking();
+        var id = tracker.register(address, prefixes);
+        if (id < 0) {
+            return false;
+        }
+        this.tracker = tracker;
+        this.trackingId = id;
+        this.trackingReads = prefixes.isEmpty();
+        return true;
+    }
+
+    public void stopTracking() {
+        if (tracker != null) {
+            trackingReads = false;
+            tracker.unregister(trackingId);
+            tracker = null;
+            trackingId = -1;
+        }
+    }
+
+    // only connections tracking their reads, not prefixes, have keys recorded
+    public boolean tracksReads() {
+        return trackingReads;
+    }
+
+    public boolean isTracking() {
+        return tracker != null;
+    }
+
+    public int trackingId() {
+        return trackingId;
+    }
+
+    public void close() {
+        stopTracking();
+    }
+}
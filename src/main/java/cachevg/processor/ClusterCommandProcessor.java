@@ -0,0 +1,101 @@
+package cachevg.processor;
+
+import cachevg.cluster.Cluster;
+import cachevg.cluster.ClusterNode;
+import cachevg.cluster.SlotRange;
+import cachevg.command.Replies;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import static cachevg.command.CommandNames.*;
+
+// CLUSTER SLOTS lists the owner of every slot range, CLUSTER SETSLOT <range> <host:port> changes this node's view,
+// CLUSTER MIGRATE <range> <host:port> moves owned slots to another node in the background,
+// and CLUSTER IMPORT <records> takes the batches a migrating node sends
+public class ClusterCommandProcessor implements Processor, BinaryProcessor {
+    private final Cluster cluster;
+
+    public ClusterCommandProcessor(Cluster cluster) {
+        this.cluster = cluster;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length < 2) {
+            return Replies.wrongArguments(CLUSTER);
+        }
+        var subcommand = args[1].toUpperCase(Locale.ROOT);
+        return switch (subcommand) {
+            case SLOTS -> args.length == 2 ? String.join("\n", cluster.describe()) : Replies.wrongArguments(CLUSTER);
+            case SETSLOT, MIGRATE -> args.length == 4 ? move(subcommand, args[2], args[3]) : Replies.wrongArguments(CLUSTER);
+            case IMPORT -> Replies.IMPORT_IS_BINARY;
+            default -> Replies.unknownCommand(CLUSTER + " " + args[1]);
+        };
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() < 1) {
+            reply.error(Replies.wrongArguments(CLUSTER));
+            return;
+        }
+        var subcommand = string(command, 0).toUpperCase(Locale.ROOT);
+        switch (subcommand) {
+            case SLOTS -> {
+                var slots = cluster.describe();
+                reply.array(slots.size());
+                slots.forEach(run -> reply.element(run.getBytes(StandardCharsets.UTF_8)));
+            }
+            case SETSLOT, MIGRATE -> {
+                if (command.arguments() != 3) {
+                    reply.error(Replies.wrongArguments(CLUSTER));
+                    return;
+                }
+                var result = move(subcommand, string(command, 1), string(command, 2));
+                if (Replies.OK.equals(result)) {
+                    reply.ok();
+                } else {
+                    reply.error(result);
+                }
+            }
+            case IMPORT -> {
+                if (command.arguments() != 2) {
+                    reply.error(Replies.wrongArguments(CLUSTER));
+                    return;
+                }
+                try {
+                    cluster.importRecords(command.bytes(1));
+                    reply.ok();
+                } catch (IOException ex) {
+                    reply.error(Replies.MALFORMED_COMMAND);
+                }
+            }
+            default -> reply.error(Replies.unknownCommand(CLUSTER + " " + subcommand));
+        }
+    }
+
+    private String move(String subcommand, String slots, String node) {
+        SlotRange range;
+        ClusterNode target;
+        try {
+            range = SlotRange.parse(slots);
+            target = ClusterNode.parse(node);
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
+        }
+        if (subcommand.equals(SETSLOT)) {
+            cluster.assign(range, target);
+            return Replies.OK;
+        }
+        if (!cluster.ownsAll(range) || target.equals(cluster.self())) {
+            return Replies.SLOTS_NOT_OWNED;
+        }
+        return cluster.migrate(range, target) ? Replies.OK : Replies.MIGRATION_IN_PROGRESS;
+    }
+
+    private static String string(BinaryCommand command, int argument) {
+        return new String(command.bytes(argument), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,70 @@
+package cachevg.processor;
+
+import cachevg.cluster.Cluster;
+import cachevg.cluster.HashSlots;
+
+import java.nio.charset.StandardCharsets;
+
+// runs the command only when every key belongs to a slot served here, otherwise replies with the redirect
+class ClusterRoutingProcessor<P extends Processor & BinaryProcessor> implements Processor, BinaryProcessor {
+    private final P processor;
+    private final Cluster cluster;
+    private final CommandKeys keys;
+    private final boolean write;
+
+    ClusterRoutingProcessor(P processor, Cluster cluster, CommandKeys keys, boolean write) {
+        this.processor = processor;
+        this.cluster = cluster;
+        this.keys = keys;
+        this.write = write;
+    }
+
+    @Override
+    public String process(String[] args) {
+        var slots = new int[keys.count(args.length - 1)];
+        for (var idx = 0; idx < slots.length; idx++) {
+            slots[idx] = HashSlots.slot(args[keys.position(idx) + 1].getBytes(StandardCharsets.UTF_8));
+        }
+        if (!write) {
+            var refusal = refusal(slots);
+            return refusal != null ? refusal : processor.process(args);
+        }
+        var stripes = cluster.lockWrites(slots);
+        try {
+            var refusal = refusal(slots);
+            return refusal != null ? refusal : processor.process(args);
+        } finally {
+            cluster.unlockWrites(stripes);
+        }
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        var slots = new int[keys.count(command.arguments())];
+        for (var idx = 0; idx < slots.length; idx++) {
+            var argument = keys.position(idx);
+            slots[idx] = HashSlots.slot(command.buffer(), command.offset(argument), command.length(argument));
+        }
+        var stripes = write ? cluster.lockWrites(slots) : 0;
+        try {
+            var refusal = refusal(slots);
+            if (refusal != null) {
+                reply.error(refusal);
+            } else {
+                processor.process(command, reply);
+            }
+        } finally {
+            cluster.unlockWrites(stripes);
+        }
+    }
+
+    private String refusal(int[] slots) {
+        for (var slot : slots) {
+            var refusal = cluster.refusal(slot, write);
+            if (refusal != null) {
+                return refusal;
+            }
+        }
+        return null;
+    }
+}
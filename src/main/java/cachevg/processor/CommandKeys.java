@@ -0,0 +1,20 @@
+package cachevg.processor;
+
+// which arguments of a command are keys; positions count from the first argument after the command name
+enum CommandKeys {
+    FIRST,
+    ALL,
+    PAIRS;
+
+    int count(int arguments) {
+        return switch (this) {
+            case FIRST -> Math.min(arguments, 1);
+            case ALL -> arguments;
+            case PAIRS -> (arguments + 1) / 2;
+        };
+    }
+
+    int position(int key) {
+        return this == PAIRS ? key * 2 : key;
+    }
+}
@@ -1,24 +1,141 @@
 package cachevg.processor;
 
+import cachevg.cluster.Cluster;
+import cachevg.command.Opcodes;
+import cachevg.metrics.Metrics;
+import cachevg.persistence.Snapshots;
+import cachevg.storage.Storage;
+import cachevg.storage.ValueCompressor;
+import cachevg.tracking.KeyTracker;
+
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 import static cachevg.command.CommandNames.*;
 
 public class CommandMapper {
-    private static Map<String, Processor> processors = new HashMap<>();
+    private static final UnknownCommandProcessor UNKNOWN = new UnknownCommandProcessor();
+    private static final ReadOnlyCommandProcessor READ_ONLY = new ReadOnlyCommandProcessor();
+
+    private final Map<String, Processor> processors = new HashMap<>();
+    private final BinaryProcessor[] binaryProcessors = new BinaryProcessor[256];
+
+    private final Metrics metrics;
+    private final boolean readOnly;
+    private final Cluster cluster;
+    private final KeyTracker tracker;
+
+    public CommandMapper(Storage storage, Metrics metrics) {
+        this(storage, metrics, null);
+    }
+
+    public CommandMapper(Storage storage, Metrics metrics, Snapshots snapshots) {
+        this(storage, metrics, snapshots, false);
+    }
+
+    // a read-only mapper, used by replicas, answers every command that changes the keyspace with an error
+    public CommandMapper(Storage storage, Metrics metrics, Snapshots snapshots, boolean readOnly) {
+        this(storage, metrics, snapshots, readOnly, null);
+    }
+
+    // with a cluster, commands on keys of slots served by other nodes are answered with a redirect
+    public CommandMapper(Storage storage, Metrics metrics, Snapshots snapshots, boolean readOnly, Cluster cluster) {
+        this(storage, metrics, snapshots, readOnly, cluster, null, null);
+    }
+
+    // with a compressor, large strings are stored deflated; with a tracker, binary connections can ask
+    // to be told when keys they read change
+    public CommandMapper(
+            Storage storage,
+            Metrics metrics,
+            Snapshots snapshots,
+            boolean readOnly,
+            Cluster cluster,
+            ValueCompressor compressor,
+            KeyTracker tracker) {
+        this.metrics = metrics;
+        this.readOnly = readOnly;
+        this.cluster = cluster;
+        this.tracker = tracker;
+        registerWrite(PUT, Opcodes.PUT, CommandKeys.FIRST, new PutCommandProcessor(storage, compressor));
+        registerWrite(REMOVE, Opcodes.REMOVE, CommandKeys.FIRST, new RemoveCommandProcessor(storage));
+        registerRead(GET, Opcodes.GET, CommandKeys.FIRST, new GetCommandProcessor(storage));
+        register(KEYS, Opcodes.KEYS, new KeysCommandProcessor(storage));
+        register(PING, Opcodes.PING, new PingCommandProcessor());
+        registerRead(TTL, Opcodes.TTL, CommandKeys.FIRST, new TtlCommandProcessor(storage));
+        registerRead(MGET, Opcodes.MGET, CommandKeys.ALL, new MGetCommandProcessor(storage));
+        registerWrite(MPUT, Opcodes.MPUT, CommandKeys.PAIRS, new MPutCommandProcessor(storage, compressor));
+        registerWrite(MREMOVE, Opcodes.MREMOVE, CommandKeys.ALL, new MRemoveCommandProcessor(storage));
+        register(INFO, Opcodes.INFO, new InfoCommandProcessor(metrics));
+        processors.put(STATS, processors.get(INFO));
+        registerWrite(INCR, Opcodes.INCR, CommandKeys.FIRST, new IncrementCommandProcessor(storage, INCR, 1));
+        registerWrite(DECR, Opcodes.DECR, CommandKeys.FIRST, new IncrementCommandProcessor(storage, DECR, -1));
+        registerWrite(INCRBY, Opcodes.INCRBY, CommandKeys.FIRST, new IncrByCommandProcessor(storage));
+        registerWrite(HSET, Opcodes.HSET, CommandKeys.FIRST, new HSetCommandProcessor(storage));
+        registerRead(HGET, Opcodes.HGET, CommandKeys.FIRST, new HGetCommandProcessor(storage));
+        registerWrite(HDEL, Opcodes.HDEL, CommandKeys.FIRST, new HDelCommandProcessor(storage));
+        registerRead(HLEN, Opcodes.HLEN, CommandKeys.FIRST, new HLenCommandProcessor(storage));
+        registerRead(HGETALL, Opcodes.HGETALL, CommandKeys.FIRST, new HGetAllCommandProcessor(storage));
+        registerWrite(LPUSH, Opcodes.LPUSH, CommandKeys.FIRST, new PushCommandProcessor(storage, LPUSH, true));
+        registerWrite(RPUSH, Opcodes.RPUSH, CommandKeys.FIRST, new PushCommandProcessor(storage, RPUSH, false));
+        registerWrite(LPOP, Opcodes.LPOP, CommandKeys.FIRST, new PopCommandProcessor(storage, LPOP, true));
+        registerWrite(RPOP, Opcodes.RPOP, CommandKeys.FIRST, new PopCommandProcessor(storage, RPOP, false));
+        registerRead(LLEN, Opcodes.LLEN, CommandKeys.FIRST, new LLenCommandProcessor(storage));
+        registerRead(LRANGE, Opcodes.LRANGE, CommandKeys.FIRST, new LRangeCommandProcessor(storage));
+        register(SCAN, Opcodes.SCAN, new ScanCommandProcessor(storage));
+        register(CLIENT, Opcodes.CLIENT, new ClientCommandProcessor(tracker));
+        if (snapshots != null) {
+            register(SNAPSHOT, Opcodes.SNAPSHOT, new SnapshotCommandProcessor(snapshots));
+        }
+        if (cluster != null) {
+            register(CLUSTER, Opcodes.CLUSTER, new ClusterCommandProcessor(cluster));
+        }
+    }
+
+    public Processor mapCommandToProcessor(String name) {
+        var processor = processors.get(name);
+        if (processor == null) {
+            // clients normally send upper-case names, so only a miss pays for the conversion
+            processor = processors.get(name.toUpperCase(Locale.ROOT));
+        }
+        return processor == null ? UNKNOWN : processor;
+    }
 
-    static {
-        processors.put(PUT, new PutCommandProcessor());
-        processors.put(REMOVE, new RemoveCommandProcessor());
-        processors.put(GET, new GetCommandProcessor());
-        processors.put(KEYS, new KeysCommandProcessor());
-        processors.put(PING, new PingCommandProcessor());
+    public BinaryProcessor mapOpcodeToProcessor(byte opcode) {
+        var processor = binaryProcessors[opcode & 0xFF];
+        return processor == null ? UNKNOWN : processor;
     }
 
-    public static Processor mapCommandToProcessor(String name) {
-        Processor processor = processors.get(name.toUpperCase());
-        return processor == null ? new UnknownCommandProcessor() : processor;
+    private <P extends Processor & BinaryProcessor> void registerRead(String name, byte opcode, CommandKeys keys, P processor) {
+        if (tracker != null) {
+            registerRouted(name, opcode, keys, new TrackingProcessor<>(processor, tracker, keys));
+        } else {
+            registerRouted(name, opcode, keys, processor);
+        }
     }
 
+    private <P extends Processor & BinaryProcessor> void registerRouted(String name, byte opcode, CommandKeys keys, P processor) {
+        if (cluster != null) {
+            register(name, opcode, new ClusterRoutingProcessor<>(processor, cluster, keys, false));
+        } else {
+            register(name, opcode, processor);
+        }
+    }
+
+    private <P extends Processor & BinaryProcessor> void registerWrite(String name, byte opcode, CommandKeys keys, P processor) {
+        if (readOnly) {
+            register(name, opcode, READ_ONLY);
+        } else if (cluster != null) {
+            register(name, opcode, new ClusterRoutingProcessor<>(processor, cluster, keys, true));
+        } else {
+            register(name, opcode, processor);
+        }
+    }
+
+    private <P extends Processor & BinaryProcessor> void register(String name, byte opcode, P processor) {
+        var timed = new TimedProcessor<>(processor, metrics.histogram("command." + name));
+        processors.put(name, timed);
+        binaryProcessors[opcode & 0xFF] = timed;
+    }
 }
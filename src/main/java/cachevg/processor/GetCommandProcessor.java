@@ -1,9 +1,48 @@
 package cachevg.processor;
 
-public class GetCommandProcessor implements Processor {
+import cachevg.command.Replies;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+
+import java.nio.charset.StandardCharsets;
+
+import static cachevg.command.CommandNames.GET;
+
+public class GetCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+
+    public GetCommandProcessor(Storage storage) {
+        this.storage = storage;
+    }
+
     @Override
     public String process(String[] args) {
-        //TODO: implement
-        return null;
+        if (args.length != 2) {
+            return Replies.wrongArguments(GET);
+        }
+        var value = storage.get(Key.of(args[1]));
+        if (value == null) {
+            return Replies.NIL;
+        }
+        if (value.getType().isCollection()) {
+            return Replies.wrongType(value.getType());
+        }
+        return new String(value.content(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() != 1) {
+            reply.error(Replies.wrongArguments(GET));
+            return;
+        }
+        var value = storage.get(command.key(0));
+        if (value == null) {
+            reply.nil();
+        } else if (value.getType().isCollection()) {
+            reply.error(Replies.wrongType(value.getType()));
+        } else {
+            reply.value(value);
+        }
     }
 }
@@ -0,0 +1,111 @@
+package cachevg.processor;
+
+// glob matching on raw key bytes: * any run, ? any byte, [abc], [a-z] and [^a] or [!a] classes, \ escapes;
+// backtracks only to the last star, so a match costs O(pattern * key) at worst
+final class GlobPattern {
+    private static final GlobPattern ALL = new GlobPattern(new byte[]{'*'});
+
+    private final byte[] pattern;
+
+    private GlobPattern(byte[] pattern) {
+        this.pattern = pattern;
+    }
+
+    static GlobPattern of(byte[] pattern) {
+        return pattern == null || pattern.length == 1 && pattern[0] == '*' ? ALL : new GlobPattern(pattern);
+    }
+
+    boolean matchesAll() {
+        return this == ALL;
+    }
+
+    boolean matches(byte[] key) {
+        if (matchesAll()) {
+            return true;
+        }
+        var p = 0;
+        var k = 0;
+        var star = -1;
+        var starKey = 0;
+        while (k < key.length) {
+            if (p < pattern.length && pattern[p] == '*') {
+                star = p++;
+                starKey = k;
+                continue;
+            }
+            if (p < pattern.length) {
+                var next = matchOne(p, key[k]);
+                if (next >= 0) {
+                    p = next;
+                    k++;
+                    continue;
+                }
+            }
+            if (star < 0) {
+                return false;
+            }
+            p = star + 1;
+            k = ++starKey;
+        }
+        while (p < pattern.length && pattern[p] == '*') {
+            p++;
+        }
+        return p == pattern.length;
+    }
+
+    // returns the pattern position after the token at p when it matches the byte, -1 otherwise
+    private int matchOne(int p, byte b) {
+        switch (pattern[p]) {
+            case '?':
+                return p + 1;
+            case '\\':
+                if (p + 1 < pattern.length) {
+                    return pattern[p + 1] == b ? p + 2 : -1;
+                }
+                return b == '\\' ? p + 1 : -1;
+            case '[':
+                var end = classEnd(p);
+                if (end > 0) {
+                    return matchClass(p + 1, end, b) ? end + 1 : -1;
+                }
+                return b == '[' ? p + 1 : -1;
+            default:
+                return pattern[p] == b ? p + 1 : -1;
+        }
+    }
+
+    // position of the closing bracket of the class opened at p, -1 when it is not closed
+    private int classEnd(int p) {
+        var idx = p + 1;
+        if (idx < pattern.length && (pattern[idx] == '^' || pattern[idx] == '!')) {
+            idx++;
+        }
+        // a bracket right after the opening one is a member, not the end
+        if (idx < pattern.length && pattern[idx] == ']') {
+            idx++;
+        }
+        while (idx < pattern.length && pattern[idx] != ']') {
+            idx += pattern[idx] == '\\' ? 2 : 1;
+        }
+        return idx < pattern.length ? idx : -1;
+    }
+
+    private boolean matchClass(int from, int end, byte b) {
+        var negated = pattern[from] == '^' || pattern[from] == '!';
+        var idx = negated ? from + 1 : from;
+        var unsigned = b & 0xFF;
+        var matched = false;
+        while (idx < end && !matched) {
+            var low = pattern[idx] == '\\' && idx + 1 < end ? pattern[++idx] & 0xFF : pattern[idx] & 0xFF;
+            if (idx + 2 < end && pattern[idx + 1] == '-') {
+                var high = pattern[idx + 2] == '\\' && idx + 3 < end ? pattern[idx + 3] & 0xFF : pattern[idx + 2] & 0xFF;
+                matched = Math.min(low, high) <= unsigned && unsigned <= Math.max(low, high);
+                idx += pattern[idx + 2] == '\\' ? 4 : 3;
+            } else {
+                matched = low == unsigned;
+                idx++;
+            }
+        }
+        return matched != negated;
+    }
+}
@@ -0,0 +1,62 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.HashValue;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+import cachevg.storage.WrongTypeException;
+
+import java.nio.charset.StandardCharsets;
+
+import static cachevg.command.CommandNames.HDEL;
+
+// HDEL key field [field ...], replies with the number of fields removed
+public class HDelCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+
+    public HDelCommandProcessor(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length < 3) {
+            return Replies.wrongArguments(HDEL);
+        }
+        try {
+            return Integer.toString(storage.update(Key.of(args[1]), HashValue.class, HashValue::new, hash -> {
+                var removed = 0;
+                for (var idx = 2; idx < args.length; idx++) {
+                    if (hash.remove(args[idx].getBytes(StandardCharsets.UTF_8))) {
+                        removed++;
+                    }
+                }
+                return removed;
+            }));
+        } catch (WrongTypeException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() < 2) {
+            reply.error(Replies.wrongArguments(HDEL));
+            return;
+        }
+        try {
+            int fieldsRemoved = storage.update(command.key(0), HashValue.class, HashValue::new, hash -> {
+                var removed = 0;
+                for (var idx = 1; idx < command.arguments(); idx++) {
+                    if (hash.remove(command.bytes(idx))) {
+                        removed++;
+                    }
+                }
+                return removed;
+            });
+            reply.integer(fieldsRemoved);
+        } catch (WrongTypeException ex) {
+            reply.error(ex.getMessage());
+        }
+    }
+}
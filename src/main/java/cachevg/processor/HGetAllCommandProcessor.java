@@ -0,0 +1,64 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.HashValue;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+import cachevg.storage.WrongTypeException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+
+import static cachevg.command.CommandNames.HGETALL;
+
+// replies with fields and values alternating
+public class HGetAllCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+
+    public HGetAllCommandProcessor(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length != 2) {
+            return Replies.wrongArguments(HGETALL);
+        }
+        var result = new StringJoiner("\n");
+        try {
+            storage.read(Key.of(args[1]), HashValue.class, hash -> {
+                hash.forEach((field, value) -> result
+                        .add(new String(field, StandardCharsets.UTF_8))
+                        .add(new String(value, StandardCharsets.UTF_8)));
+                return hash;
+            });
+        } catch (WrongTypeException ex) {
+            return ex.getMessage();
+        }
+        return result.toString();
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() != 1) {
+            reply.error(Replies.wrongArguments(HGETALL));
+            return;
+        }
+        try {
+            // the reply is written under the shard lock, so the fields are not copied twice
+            var found = storage.read(command.key(0), HashValue.class, hash -> {
+                reply.array(hash.size() * 2);
+                hash.forEach((field, value) -> {
+                    reply.element(field);
+                    reply.element(value);
+                });
+                return hash;
+            });
+            if (found == null) {
+                reply.array(0);
+            }
+        } catch (WrongTypeException ex) {
+            reply.error(ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.HashValue;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+import cachevg.storage.WrongTypeException;
+
+import java.nio.charset.StandardCharsets;
+
+import static cachevg.command.CommandNames.HGET;
+
+public class HGetCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+
+    public HGetCommandProcessor(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length != 3) {
+            return Replies.wrongArguments(HGET);
+        }
+        try {
+            var field = args[2].getBytes(StandardCharsets.UTF_8);
+            var value = storage.read(Key.of(args[1]), HashValue.class, hash -> hash.get(field));
+            return value == null ? Replies.NIL : new String(value, StandardCharsets.UTF_8);
+        } catch (WrongTypeException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() != 2) {
+            reply.error(Replies.wrongArguments(HGET));
+            return;
+        }
+        try {
+            var field = command.bytes(1);
+            var value = storage.read(command.key(0), HashValue.class, hash -> hash.get(field));
+            if (value == null) {
+                reply.nil();
+            } else {
+                reply.value(value);
+            }
+        } catch (WrongTypeException ex) {
+            reply.error(ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.HashValue;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+import cachevg.storage.WrongTypeException;
+
+import static cachevg.command.CommandNames.HLEN;
+
+public class HLenCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+
+    public HLenCommandProcessor(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length != 2) {
+            return Replies.wrongArguments(HLEN);
+        }
+        try {
+            return Integer.toString(size(Key.of(args[1])));
+        } catch (WrongTypeException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() != 1) {
+            reply.error(Replies.wrongArguments(HLEN));
+            return;
+        }
+        try {
+            reply.integer(size(command.key(0)));
+        } catch (WrongTypeException ex) {
+            reply.error(ex.getMessage());
+        }
+    }
+
+    private int size(Key key) {
+        var size = storage.read(key, HashValue.class, HashValue::size);
+        return size == null ? 0 : size;
+    }
+}
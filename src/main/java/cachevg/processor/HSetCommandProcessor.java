@@ -0,0 +1,62 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.HashValue;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+import cachevg.storage.WrongTypeException;
+
+import java.nio.charset.StandardCharsets;
+
+import static cachevg.command.CommandNames.HSET;
+
+// HSET key field value [field value ...], replies with the number of fields added
+public class HSetCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+
+    public HSetCommandProcessor(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length < 4 || args.length % 2 != 0) {
+            return Replies.wrongArguments(HSET);
+        }
+        try {
+            return Integer.toString(storage.update(Key.of(args[1]), HashValue.class, HashValue::new, hash -> {
+                var added = 0;
+                for (var idx = 2; idx < args.length; idx += 2) {
+                    if (hash.put(args[idx].getBytes(StandardCharsets.UTF_8), args[idx + 1].getBytes(StandardCharsets.UTF_8))) {
+                        added++;
+                    }
+                }
+                return added;
+            }));
+        } catch (WrongTypeException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() < 3 || command.arguments() % 2 != 1) {
+            reply.error(Replies.wrongArguments(HSET));
+            return;
+        }
+        try {
+            int fieldsAdded = storage.update(command.key(0), HashValue.class, HashValue::new, hash -> {
+                var added = 0;
+                for (var idx = 1; idx < command.arguments(); idx += 2) {
+                    if (hash.put(command.bytes(idx), command.bytes(idx + 1))) {
+                        added++;
+                    }
+                }
+                return added;
+            });
+            reply.integer(fieldsAdded);
+        } catch (WrongTypeException ex) {
+            reply.error(ex.getMessage());
+        }
+    }
+}
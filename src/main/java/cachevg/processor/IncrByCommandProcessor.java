@@ -0,0 +1,56 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+import cachevg.storage.WrongTypeException;
+
+import static cachevg.command.CommandNames.INCRBY;
+
+public class IncrByCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+
+    public IncrByCommandProcessor(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length != 3) {
+            return Replies.wrongArguments(INCRBY);
+        }
+        long delta;
+        try {
+            delta = Long.parseLong(args[2]);
+        } catch (NumberFormatException ex) {
+            return Replies.NOT_AN_INTEGER;
+        }
+        try {
+            return Long.toString(storage.increment(Key.of(args[1]), delta));
+        } catch (WrongTypeException ex) {
+            return ex.getMessage();
+        } catch (ArithmeticException ex) {
+            return Replies.OVERFLOW;
+        }
+    }
+
+    // the delta is an 8-byte big-endian long
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() != 2) {
+            reply.error(Replies.wrongArguments(INCRBY));
+            return;
+        }
+        if (command.length(1) != Long.BYTES) {
+            reply.error(Replies.NOT_AN_INTEGER);
+            return;
+        }
+        try {
+            reply.integer(storage.increment(command.key(0), command.longArgument(1)));
+        } catch (WrongTypeException ex) {
+            reply.error(ex.getMessage());
+        } catch (ArithmeticException ex) {
+            reply.error(Replies.OVERFLOW);
+        }
+    }
+}
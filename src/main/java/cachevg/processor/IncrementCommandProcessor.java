@@ -0,0 +1,48 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+import cachevg.storage.WrongTypeException;
+
+// INCR and DECR, which differ only in the fixed delta
+public class IncrementCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+    private final String name;
+    private final long delta;
+
+    public IncrementCommandProcessor(Storage storage, String name, long delta) {
+        this.storage = storage;
+        this.name = name;
+        this.delta = delta;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length != 2) {
+            return Replies.wrongArguments(name);
+        }
+        try {
+            return Long.toString(storage.increment(Key.of(args[1]), delta));
+        } catch (WrongTypeException ex) {
+            return ex.getMessage();
+        } catch (ArithmeticException ex) {
+            return Replies.OVERFLOW;
+        }
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() != 1) {
+            reply.error(Replies.wrongArguments(name));
+            return;
+        }
+        try {
+            reply.integer(storage.increment(command.key(0), delta));
+        } catch (WrongTypeException ex) {
+            reply.error(ex.getMessage());
+        } catch (ArithmeticException ex) {
+            reply.error(Replies.OVERFLOW);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.metrics.Metrics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+
+import static cachevg.command.CommandNames.INFO;
+
+public class InfoCommandProcessor implements Processor, BinaryProcessor {
+    private final Metrics metrics;
+
+    public InfoCommandProcessor(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length != 1) {
+            return Replies.wrongArguments(INFO);
+        }
+        return info();
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() != 0) {
+            reply.error(Replies.wrongArguments(INFO));
+            return;
+        }
+        reply.value(info().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String info() {
+        var result = new StringJoiner("\n");
+        metrics.snapshot().forEach((name, value) -> result.add(name + ":" + value));
+        return result.toString();
+    }
+}
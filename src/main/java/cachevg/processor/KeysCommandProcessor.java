@@ -1,9 +1,68 @@
 package cachevg.processor;
 
-public class KeysCommandProcessor implements Processor {
+import cachevg.command.Replies;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static cachevg.command.CommandNames.KEYS;
+
+// KEYS [pattern] runs SCAN from the start, stopping once MAX_KEYS keys matched or MAX_SCANNED keys were
+// visited, and returns what it found by then; a rare pattern therefore may miss keys of a large keyspace,
+// clients needing every key iterate with SCAN
+public class KeysCommandProcessor implements Processor, BinaryProcessor {
+    private static final int MAX_KEYS = 10_000;
+    private static final int MAX_SCANNED = 100_000;
+    private static final int SCAN_COUNT = 1_000;
+
+    private final Storage storage;
+
+    public KeysCommandProcessor(Storage storage) {
+        this.storage = storage;
+    }
+
     @Override
     public String process(String[] args) {
-        //TODO: implement
-        return null;
+        if (args.length > 2) {
+            return Replies.wrongArguments(KEYS);
+        }
+        var result = new StringJoiner("\n");
+        for (var key : keys(args.length == 2 ? args[1].getBytes(StandardCharsets.UTF_8) : null)) {
+            result.add(key.toString());
+        }
+        return result.toString();
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() > 1) {
+            reply.error(Replies.wrongArguments(KEYS));
+            return;
+        }
+        var keys = keys(command.arguments() == 1 ? command.bytes(0) : null);
+        reply.array(keys.size());
+        for (var key : keys) {
+            reply.element(key.getBytes());
+        }
+    }
+
+    private List<Key> keys(byte[] glob) {
+        var pattern = GlobPattern.of(glob);
+        var keys = new ArrayList<Key>();
+        var scanned = new int[1];
+        var cursor = 0L;
+        do {
+            cursor = storage.scan(cursor, SCAN_COUNT, key -> {
+                scanned[0]++;
+                if (keys.size() < MAX_KEYS && pattern.matches(key.getBytes())) {
+                    keys.add(key);
+                }
+            });
+        } while (cursor != 0 && keys.size() < MAX_KEYS && scanned[0] < MAX_SCANNED);
+        return keys;
     }
 }
@@ -0,0 +1,47 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.Key;
+import cachevg.storage.ListValue;
+import cachevg.storage.Storage;
+import cachevg.storage.WrongTypeException;
+
+import static cachevg.command.CommandNames.LLEN;
+
+public class LLenCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+
+    public LLenCommandProcessor(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length != 2) {
+            return Replies.wrongArguments(LLEN);
+        }
+        try {
+            return Integer.toString(size(Key.of(args[1])));
+        } catch (WrongTypeException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() != 1) {
+            reply.error(Replies.wrongArguments(LLEN));
+            return;
+        }
+        try {
+            reply.integer(size(command.key(0)));
+        } catch (WrongTypeException ex) {
+            reply.error(ex.getMessage());
+        }
+    }
+
+    private int size(Key key) {
+        var size = storage.read(key, ListValue.class, ListValue::size);
+        return size == null ? 0 : size;
+    }
+}
@@ -0,0 +1,73 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.Key;
+import cachevg.storage.ListValue;
+import cachevg.storage.Storage;
+import cachevg.storage.WrongTypeException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+
+import static cachevg.command.CommandNames.LRANGE;
+
+// LRANGE key start stop, both inclusive, negative indexes count from the tail
+public class LRangeCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+
+    public LRangeCommandProcessor(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length != 4) {
+            return Replies.wrongArguments(LRANGE);
+        }
+        long start;
+        long stop;
+        try {
+            start = Long.parseLong(args[2]);
+            stop = Long.parseLong(args[3]);
+        } catch (NumberFormatException ex) {
+            return Replies.NOT_AN_INTEGER;
+        }
+        var result = new StringJoiner("\n");
+        try {
+            storage.read(Key.of(args[1]), ListValue.class, list -> {
+                list.range(start, stop, element -> result.add(new String(element, StandardCharsets.UTF_8)));
+                return list;
+            });
+        } catch (WrongTypeException ex) {
+            return ex.getMessage();
+        }
+        return result.toString();
+    }
+
+    // start and stop are 8-byte big-endian longs
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() != 3) {
+            reply.error(Replies.wrongArguments(LRANGE));
+            return;
+        }
+        if (command.length(1) != Long.BYTES || command.length(2) != Long.BYTES) {
+            reply.error(Replies.NOT_AN_INTEGER);
+            return;
+        }
+        var start = command.longArgument(1);
+        var stop = command.longArgument(2);
+        try {
+            var found = storage.read(command.key(0), ListValue.class, list -> {
+                reply.array(list.rangeLength(start, stop));
+                list.range(start, stop, reply::element);
+                return list;
+            });
+            if (found == null) {
+                reply.array(0);
+            }
+        } catch (WrongTypeException ex) {
+            reply.error(ex.getMessage());
+        }
+    }
+}
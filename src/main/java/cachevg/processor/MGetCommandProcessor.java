@@ -0,0 +1,58 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+
+import static cachevg.command.CommandNames.MGET;
+
+public class MGetCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+
+    public MGetCommandProcessor(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length < 2) {
+            return Replies.wrongArguments(MGET);
+        }
+        var keys = new Key[args.length - 1];
+        for (var idx = 0; idx < keys.length; idx++) {
+            keys[idx] = Key.of(args[idx + 1]);
+        }
+        var result = new StringJoiner("\n");
+        for (var value : storage.getAll(keys)) {
+            result.add(value == null || value.getType().isCollection()
+                    ? Replies.NIL
+                    : new String(value.content(), StandardCharsets.UTF_8));
+        }
+        return result.toString();
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() < 1) {
+            reply.error(Replies.wrongArguments(MGET));
+            return;
+        }
+        var keys = new Key[command.arguments()];
+        for (var idx = 0; idx < keys.length; idx++) {
+            keys[idx] = command.key(idx);
+        }
+        var values = storage.getAll(keys);
+        reply.array(values.length);
+        for (var value : values) {
+            // like a missing key, so that one collection does not fail the whole batch
+            if (value == null || value.getType().isCollection()) {
+                reply.nilElement();
+            } else {
+                reply.element(value);
+            }
+        }
+    }
+}
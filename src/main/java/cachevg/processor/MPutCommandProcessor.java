@@ -0,0 +1,59 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+import cachevg.storage.Value;
+import cachevg.storage.ValueCompressor;
+import cachevg.types.Type;
+
+import java.nio.charset.StandardCharsets;
+
+import static cachevg.command.CommandNames.MPUT;
+
+public class MPutCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+    private final ValueCompressor compressor;
+
+    public MPutCommandProcessor(Storage storage, ValueCompressor compressor) {
+        this.storage = storage;
+        this.compressor = compressor;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length < 3 || args.length % 2 == 0) {
+            return Replies.wrongArguments(MPUT);
+        }
+        var pairs = (args.length - 1) / 2;
+        var keys = new Key[pairs];
+        var values = new Value[pairs];
+        for (var idx = 0; idx < pairs; idx++) {
+            keys[idx] = Key.of(args[idx * 2 + 1]);
+            values[idx] = stored(new Value(Type.STRING, args[idx * 2 + 2].getBytes(StandardCharsets.UTF_8)));
+        }
+        storage.putAll(keys, values);
+        return Replies.OK;
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() < 2 || command.arguments() % 2 != 0) {
+            reply.error(Replies.wrongArguments(MPUT));
+            return;
+        }
+        var pairs = command.arguments() / 2;
+        var keys = new Key[pairs];
+        var values = new Value[pairs];
+        for (var idx = 0; idx < pairs; idx++) {
+            keys[idx] = command.key(idx * 2);
+            values[idx] = stored(new Value(Type.STRING, command.bytes(idx * 2 + 1)));
+        }
+        storage.putAll(keys, values);
+        reply.ok();
+    }
+
+    private Value stored(Value value) {
+        return compressor != null ? compressor.compress(value) : value;
+    }
+}
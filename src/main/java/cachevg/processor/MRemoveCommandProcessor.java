@@ -0,0 +1,40 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+
+import static cachevg.command.CommandNames.MREMOVE;
+
+public class MRemoveCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+
+    public MRemoveCommandProcessor(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length < 2) {
+            return Replies.wrongArguments(MREMOVE);
+        }
+        var keys = new Key[args.length - 1];
+        for (var idx = 0; idx < keys.length; idx++) {
+            keys[idx] = Key.of(args[idx + 1]);
+        }
+        return Integer.toString(storage.removeAll(keys));
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() < 1) {
+            reply.error(Replies.wrongArguments(MREMOVE));
+            return;
+        }
+        var keys = new Key[command.arguments()];
+        for (var idx = 0; idx < keys.length; idx++) {
+            keys[idx] = command.key(idx);
+        }
+        reply.integer(storage.removeAll(keys));
+    }
+}
@@ -1,9 +1,25 @@
 package cachevg.processor;
 
-public class PingCommandProcessor implements Processor {
+import cachevg.command.Replies;
+
+import java.nio.charset.StandardCharsets;
+
+import static cachevg.command.CommandNames.PING;
+
+public class PingCommandProcessor implements Processor, BinaryProcessor {
+    private static final byte[] PONG = Replies.PONG.getBytes(StandardCharsets.UTF_8);
+
     @Override
     public String process(String[] args) {
-        //TODO: implement
-        return null;
+        return args.length > 1 ? args[1] : Replies.PONG;
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        switch (command.arguments()) {
+            case 0 -> reply.value(PONG);
+            case 1 -> reply.value(command.buffer(), command.offset(0), command.length(0));
+            default -> reply.error(Replies.wrongArguments(PING));
+        }
     }
 }
@@ -0,0 +1,57 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.Key;
+import cachevg.storage.ListValue;
+import cachevg.storage.Storage;
+import cachevg.storage.WrongTypeException;
+
+import java.nio.charset.StandardCharsets;
+
+// LPOP and RPOP key
+public class PopCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+    private final String name;
+    private final boolean first;
+
+    public PopCommandProcessor(Storage storage, String name, boolean first) {
+        this.storage = storage;
+        this.name = name;
+        this.first = first;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length != 2) {
+            return Replies.wrongArguments(name);
+        }
+        try {
+            var element = pop(Key.of(args[1]));
+            return element == null ? Replies.NIL : new String(element, StandardCharsets.UTF_8);
+        } catch (WrongTypeException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() != 1) {
+            reply.error(Replies.wrongArguments(name));
+            return;
+        }
+        try {
+            var element = pop(command.key(0));
+            if (element == null) {
+                reply.nil();
+            } else {
+                reply.value(element);
+            }
+        } catch (WrongTypeException ex) {
+            reply.error(ex.getMessage());
+        }
+    }
+
+    private byte[] pop(Key key) {
+        return storage.update(key, ListValue.class, ListValue::new, first ? ListValue::popFirst : ListValue::popLast);
+    }
+}
@@ -0,0 +1,66 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.Key;
+import cachevg.storage.ListValue;
+import cachevg.storage.Storage;
+import cachevg.storage.WrongTypeException;
+
+import java.nio.charset.StandardCharsets;
+
+// LPUSH and RPUSH key element [element ...], reply with the length of the list
+public class PushCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+    private final String name;
+    private final boolean first;
+
+    public PushCommandProcessor(Storage storage, String name, boolean first) {
+        this.storage = storage;
+        this.name = name;
+        this.first = first;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length < 3) {
+            return Replies.wrongArguments(name);
+        }
+        try {
+            return Integer.toString(storage.update(Key.of(args[1]), ListValue.class, ListValue::new, list -> {
+                for (var idx = 2; idx < args.length; idx++) {
+                    push(list, args[idx].getBytes(StandardCharsets.UTF_8));
+                }
+                return list.size();
+            }));
+        } catch (WrongTypeException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() < 2) {
+            reply.error(Replies.wrongArguments(name));
+            return;
+        }
+        try {
+            int length = storage.update(command.key(0), ListValue.class, ListValue::new, list -> {
+                for (var idx = 1; idx < command.arguments(); idx++) {
+                    push(list, command.bytes(idx));
+                }
+                return list.size();
+            });
+            reply.integer(length);
+        } catch (WrongTypeException ex) {
+            reply.error(ex.getMessage());
+        }
+    }
+
+    private void push(ListValue list, byte[] element) {
+        if (first) {
+            list.pushFirst(element);
+        } else {
+            list.pushLast(element);
+        }
+    }
+}
@@ -1,9 +1,81 @@
 package cachevg.processor;
 
-public class PutCommandProcessor implements Processor {
+import cachevg.command.Replies;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+import cachevg.storage.Value;
+import cachevg.storage.ValueCompressor;
+import cachevg.types.Type;
+
+import java.nio.charset.StandardCharsets;
+
+import static cachevg.command.CommandNames.EX;
+import static cachevg.command.CommandNames.PUT;
+
+public class PutCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+    private final ValueCompressor compressor;
+
+    public PutCommandProcessor(Storage storage, ValueCompressor compressor) {
+        this.storage = storage;
+        this.compressor = compressor;
+    }
+
     @Override
     public String process(String[] args) {
-        //TODO: implement
-        return null;
+        if (args.length != 3 && (args.length != 5 || !EX.equalsIgnoreCase(args[3]))) {
+            return Replies.wrongArguments(PUT);
+        }
+        var expireAt = 0L;
+        if (args.length == 5) {
+            expireAt = expireAt(parseSeconds(args[4]));
+            if (expireAt < 0) {
+                return Replies.INVALID_EXPIRE_TIME;
+            }
+        }
+        storage.put(Key.of(args[1]), stored(new Value(Type.STRING, args[2].getBytes(StandardCharsets.UTF_8), expireAt)));
+        return Replies.OK;
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() != 2 && command.arguments() != 3) {
+            reply.error(Replies.wrongArguments(PUT));
+            return;
+        }
+        var expireAt = 0L;
+        if (command.arguments() == 3) {
+            expireAt = expireAt(command.longArgument(2));
+            if (expireAt < 0) {
+                reply.error(Replies.INVALID_EXPIRE_TIME);
+                return;
+            }
+        }
+        storage.put(command.key(0), stored(new Value(Type.STRING, command.bytes(1), expireAt)));
+        reply.ok();
+    }
+
+    private Value stored(Value value) {
+        return compressor != null ? compressor.compress(value) : value;
+    }
+
+    // -1 for a TTL that is not positive or does not fit in an epoch millisecond
+    private static long expireAt(long seconds) {
+        if (seconds <= 0) {
+            return -1;
+        }
+        try {
+            return Math.addExact(System.currentTimeMillis(), Math.multiplyExact(seconds, 1000L));
+        } catch (ArithmeticException ex) {
+            return -1;
+        }
+    }
+
+    private static long parseSeconds(String seconds) {
+        try {
+            return Long.parseLong(seconds);
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
     }
 }
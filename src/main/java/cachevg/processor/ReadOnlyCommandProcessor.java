@@ -0,0 +1,15 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+
+public class ReadOnlyCommandProcessor implements Processor, BinaryProcessor {
+    @Override
+    public String process(String[] args) {
+        return Replies.READ_ONLY_REPLICA;
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        reply.error(Replies.READ_ONLY_REPLICA);
+    }
+}
@@ -1,9 +1,32 @@
 package cachevg.processor;
 
-public class RemoveCommandProcessor implements Processor {
+import cachevg.command.Replies;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+
+import static cachevg.command.CommandNames.REMOVE;
+
+public class RemoveCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+
+    public RemoveCommandProcessor(Storage storage) {
+        this.storage = storage;
+    }
+
     @Override
     public String process(String[] args) {
-        //TODO: implement
-        return null;
+        if (args.length != 2) {
+            return Replies.wrongArguments(REMOVE);
+        }
+        return storage.remove(Key.of(args[1])) == null ? "0" : "1";
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() != 1) {
+            reply.error(Replies.wrongArguments(REMOVE));
+            return;
+        }
+        reply.integer(storage.remove(command.key(0)) == null ? 0 : 1);
     }
 }
@@ -0,0 +1,144 @@
+package cachevg.processor;
+
+import cachevg.command.ReplyCodes;
+import cachevg.parser.MessageParser;
+import cachevg.storage.CompressedValue;
+import cachevg.storage.Value;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public final class ReplyWriter {
+    private static final int INITIAL_CAPACITY = 4 * 1024;
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+    private int frameStart;
+    private ClientSession session;
+
+    public void clear() {
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+        }
+        buffer.clear();
+    }
+
+    // the connection the replies go to, set before every message
+    public void session(ClientSession session) {
+        this.session = session;
+    }
+
+    public ClientSession session() {
+        return session;
+    }
+
+    public void beginFrame() {
+        ensureCapacity(MessageParser.FRAME_OVERHEAD);
+        frameStart = buffer.position();
+        buffer.put(MessageParser.HEADER).putInt(0).put(MessageParser.BEGIN_MESSAGE);
+    }
+
+    public void endFrame() {
+        var payloadStart = frameStart + MessageParser.BEGIN_MESSAGE_INDEX + 1;
+        buffer.putInt(frameStart + MessageParser.LENGTH_INDEX, buffer.position() - payloadStart);
+        buffer.put(MessageParser.END_MESSAGE);
+    }
+
+    public ByteBuffer flip() {
+        return buffer.flip();
+    }
+
+    public void text(String text) {
+        var bytes = text.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(bytes.length);
+        buffer.put(bytes);
+    }
+
+    public void ok() {
+        ensureCapacity(1);
+        buffer.put(ReplyCodes.OK);
+    }
+
+    public void nil() {
+        ensureCapacity(1);
+        buffer.put(ReplyCodes.NIL);
+    }
+
+    public void integer(long value) {
+        ensureCapacity(1 + Long.BYTES);
+        buffer.put(ReplyCodes.INTEGER).putLong(value);
+    }
+
+    public void error(String message) {
+        var bytes = message.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(1 + Integer.BYTES + bytes.length);
+        buffer.put(ReplyCodes.ERROR).putInt(bytes.length).put(bytes);
+    }
+
+    // a compressed value is sent as stored when the client asked for that, and inflated into the reply otherwise
+    public void value(Value value) {
+        // a client caching the value needs to know when to drop it, the invalidation only follows the expiration
+        if (value.getExpireAt() != 0 && session != null && session.isTracking()) {
+            ensureCapacity(1 + Long.BYTES);
+            buffer.put(ReplyCodes.EXPIRES_IN).putLong(Math.max(0, value.getExpireAt() - System.currentTimeMillis()));
+        }
+        if (value instanceof CompressedValue && session != null && session.acceptsCompressedValues()) {
+            ensureCapacity(1 + Integer.BYTES + value.length());
+            buffer.put(ReplyCodes.COMPRESSED_VALUE).putInt(value.length());
+            value.writeTo(buffer);
+            return;
+        }
+        var length = value.contentLength();
+        ensureCapacity(1 + Integer.BYTES + length);
+        buffer.put(ReplyCodes.VALUE).putInt(length);
+        value.writeContentTo(buffer);
+    }
+
+    public void value(byte[] value) {
+        ensureCapacity(1);
+        buffer.put(ReplyCodes.VALUE);
+        element(value);
+    }
+
+    public void value(ByteBuffer source, int offset, int length) {
+        ensureCapacity(1 + Integer.BYTES + length);
+        buffer.put(ReplyCodes.VALUE).putInt(length);
+        buffer.put(buffer.position(), source, offset, length);
+        buffer.position(buffer.position() + length);
+    }
+
+    public void array(int elements) {
+        ensureCapacity(1 + Integer.BYTES);
+        buffer.put(ReplyCodes.ARRAY).putInt(elements);
+    }
+
+    // array elements carry no reply code, so they are always inflated
+    public void element(Value element) {
+        var length = element.contentLength();
+        ensureCapacity(Integer.BYTES + length);
+        buffer.putInt(length);
+        element.writeContentTo(buffer);
+    }
+
+    // arrays mark a missing element with a negative length
+    public void nilElement() {
+        ensureCapacity(Integer.BYTES);
+        buffer.putInt(-1);
+    }
+
+    public void element(byte[] element) {
+        ensureCapacity(Integer.BYTES + element.length);
+        buffer.putInt(element.length).put(element);
+    }
+
+    private void ensureCapacity(int bytes) {
+        // one byte more for the frame end marker
+        var required = buffer.position() + bytes + 1;
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        var grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, required));
+        grown.put(buffer.flip());
+        buffer = grown;
+    }
+}
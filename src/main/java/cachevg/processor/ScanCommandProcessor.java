@@ -0,0 +1,110 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.StringJoiner;
+
+import static cachevg.command.CommandNames.COUNT;
+import static cachevg.command.CommandNames.MATCH;
+import static cachevg.command.CommandNames.SCAN;
+
+// SCAN cursor [MATCH pattern] [COUNT n]; the reply starts with the next cursor, 0 once the walk is complete.
+// the binary form takes the cursor as an 8-byte long, then an optional pattern and an optional 8-byte count,
+// and replies with an array whose first element is the next cursor as an 8-byte long. COUNT is a hint and is
+// capped at MAX_COUNT, so that a single call never walks a large keyspace under the shard lock
+public class ScanCommandProcessor implements Processor, BinaryProcessor {
+    private static final int DEFAULT_COUNT = 10;
+    private static final int MAX_COUNT = 1_000;
+
+    private final Storage storage;
+
+    public ScanCommandProcessor(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length < 2 || args.length % 2 != 0) {
+            return Replies.wrongArguments(SCAN);
+        }
+        long cursor;
+        try {
+            cursor = Long.parseUnsignedLong(args[1]);
+        } catch (NumberFormatException ex) {
+            return Replies.INVALID_CURSOR;
+        }
+        var pattern = GlobPattern.of(null);
+        var count = DEFAULT_COUNT;
+        for (var idx = 2; idx < args.length; idx += 2) {
+            if (MATCH.equalsIgnoreCase(args[idx])) {
+                pattern = GlobPattern.of(args[idx + 1].getBytes(StandardCharsets.UTF_8));
+            } else if (COUNT.equalsIgnoreCase(args[idx])) {
+                var requested = parseCount(args[idx + 1]);
+                if (requested <= 0) {
+                    return Replies.INVALID_COUNT;
+                }
+                count = (int) Math.min(requested, MAX_COUNT);
+            } else {
+                return Replies.wrongArguments(SCAN);
+            }
+        }
+        var keys = new ArrayList<Key>();
+        var next = scan(cursor, pattern, count, keys);
+        var result = new StringJoiner("\n");
+        result.add(Long.toUnsignedString(next));
+        for (var key : keys) {
+            result.add(key.toString());
+        }
+        return result.toString();
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() < 1 || command.arguments() > 3) {
+            reply.error(Replies.wrongArguments(SCAN));
+            return;
+        }
+        if (command.length(0) != Long.BYTES) {
+            reply.error(Replies.INVALID_CURSOR);
+            return;
+        }
+        var pattern = GlobPattern.of(command.arguments() > 1 && command.length(1) > 0 ? command.bytes(1) : null);
+        var count = DEFAULT_COUNT;
+        if (command.arguments() > 2) {
+            var requested = command.length(2) == Long.BYTES ? command.longArgument(2) : -1;
+            if (requested <= 0) {
+                reply.error(Replies.INVALID_COUNT);
+                return;
+            }
+            count = (int) Math.min(requested, MAX_COUNT);
+        }
+        var keys = new ArrayList<Key>();
+        var next = scan(command.longArgument(0), pattern, count, keys);
+        reply.array(keys.size() + 1);
+        reply.element(ByteBuffer.allocate(Long.BYTES).putLong(next).array());
+        for (var key : keys) {
+            reply.element(key.getBytes());
+        }
+    }
+
+    private long scan(long cursor, GlobPattern pattern, int count, ArrayList<Key> keys) {
+        return storage.scan(cursor, count, key -> {
+            if (pattern.matches(key.getBytes())) {
+                keys.add(key);
+            }
+        });
+    }
+
+    private static long parseCount(String count) {
+        try {
+            return Long.parseLong(count);
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+}
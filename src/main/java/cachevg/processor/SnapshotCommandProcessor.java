@@ -0,0 +1,34 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.persistence.Snapshots;
+
+import static cachevg.command.CommandNames.SNAPSHOT;
+
+// starts a snapshot in the background and replies at once
+public class SnapshotCommandProcessor implements Processor, BinaryProcessor {
+    private final Snapshots snapshots;
+
+    public SnapshotCommandProcessor(Snapshots snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length != 1) {
+            return Replies.wrongArguments(SNAPSHOT);
+        }
+        return snapshots.saveInBackground() ? Replies.OK : Replies.SNAPSHOT_IN_PROGRESS;
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() != 0) {
+            reply.error(Replies.wrongArguments(SNAPSHOT));
+        } else if (snapshots.saveInBackground()) {
+            reply.ok();
+        } else {
+            reply.error(Replies.SNAPSHOT_IN_PROGRESS);
+        }
+    }
+}
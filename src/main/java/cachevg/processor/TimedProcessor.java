@@ -0,0 +1,33 @@
+package cachevg.processor;
+
+import cachevg.metrics.LatencyHistogram;
+
+class TimedProcessor<P extends Processor & BinaryProcessor> implements Processor, BinaryProcessor {
+    private final P processor;
+    private final LatencyHistogram latency;
+
+    TimedProcessor(P processor, LatencyHistogram latency) {
+        this.processor = processor;
+        this.latency = latency;
+    }
+
+    @Override
+    public String process(String[] args) {
+        var started = System.nanoTime();
+        try {
+            return processor.process(args);
+        } finally {
+            latency.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        var started = System.nanoTime();
+        try {
+            processor.process(command, reply);
+        } finally {
+            latency.record(System.nanoTime() - started);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package cachevg.processor;
+
+import cachevg.tracking.KeyTracker;
+
+// records the keys a tracking connection reads before running the read, so a write that races with it still
+// finds the connection in the table; text connections cannot track and pass straight through
+class TrackingProcessor<P extends Processor & BinaryProcessor> implements Processor, BinaryProcessor {
+    private final P processor;
+    private final KeyTracker tracker;
+    private final CommandKeys keys;
+
+    TrackingProcessor(P processor, KeyTracker tracker, CommandKeys keys) {
+        this.processor = processor;
+        this.tracker = tracker;
+        this.keys = keys;
+    }
+
+    @Override
+    public String process(String[] args) {
+        return processor.process(args);
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        var session = reply.session();
+        if (session != null && session.tracksReads()) {
+            var id = session.trackingId();
+            for (var idx = 0; idx < keys.count(command.arguments()); idx++) {
+                tracker.recordRead(id, command.key(keys.position(idx)));
+            }
+        }
+        processor.process(command, reply);
+    }
+}
@@ -0,0 +1,44 @@
+package cachevg.processor;
+
+import cachevg.command.Replies;
+import cachevg.storage.Key;
+import cachevg.storage.Storage;
+import cachevg.storage.Value;
+
+import static cachevg.command.CommandNames.TTL;
+
+public class TtlCommandProcessor implements Processor, BinaryProcessor {
+    private final Storage storage;
+
+    public TtlCommandProcessor(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public String process(String[] args) {
+        if (args.length != 2) {
+            return Replies.wrongArguments(TTL);
+        }
+        return Long.toString(ttl(storage.get(Key.of(args[1]))));
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        if (command.arguments() != 1) {
+            reply.error(Replies.wrongArguments(TTL));
+            return;
+        }
+        reply.integer(ttl(storage.get(command.key(0))));
+    }
+
+    private static long ttl(Value value) {
+        if (value == null) {
+            return -2;
+        }
+        if (value.getExpireAt() == 0) {
+            return -1;
+        }
+        var remainingMs = Math.max(0, value.getExpireAt() - System.currentTimeMillis());
+        return Math.ceilDiv(remainingMs, 1000);
+    }
+}
@@ -1,8 +1,15 @@
 package cachevg.processor;
 
-public class UnknownCommandProcessor implements Processor {
+import cachevg.command.Replies;
+
+public class UnknownCommandProcessor implements Processor, BinaryProcessor {
     @Override
     public String process(String[] args) {
-        return "Command " + args[0] + " is not supported";
+        return Replies.unknownCommand(args[0]);
+    }
+
+    @Override
+    public void process(BinaryCommand command, ReplyWriter reply) {
+        reply.error(Replies.unknownCommand("0x" + Integer.toHexString(command.opcode() & 0xFF)));
     }
 }
@@ -0,0 +1,142 @@
+package cachevg.replication;
+
+import cachevg.metrics.Meter;
+import cachevg.metrics.Metrics;
+import cachevg.persistence.RecordReader;
+import cachevg.storage.Storage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+import static cachevg.replication.ReplicationProtocol.*;
+
+// the replica side: a full sync the first time, then the mutation stream; after a broken connection
+// it asks to continue from the offset it got to, which the primary grants while that offset is in its backlog
+public class ReplicaLink {
+    private static final Logger log = LogManager.getLogger(ReplicaLink.class);
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    // the primary sends a heartbeat every second while idle
+    private static final int READ_TIMEOUT_MS = 5000;
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    private final String host;
+    private final int port;
+    private final Storage storage;
+    private final Meter fullSyncs;
+    private volatile long replicationId;
+    private volatile long offset;
+    private volatile boolean linked;
+    private volatile boolean running;
+    private volatile Socket socket;
+
+    public ReplicaLink(String host, int port, Storage storage, Metrics metrics) {
+        this.host = host;
+        this.port = port;
+        this.storage = storage;
+        this.fullSyncs = metrics.meter("replication.full_syncs");
+        metrics.gauge("replication.offset", () -> offset);
+        metrics.gauge("replication.link_up", () -> linked ? 1 : 0);
+    }
+
+    public void start() {
+        running = true;
+        Thread.ofPlatform().name("replica-link").daemon().start(this::run);
+    }
+
+    public void close() {
+        running = false;
+        var current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ex) {
+                log.debug("Failed to close the replication link", ex);
+            }
+        }
+    }
+
+    public long offset() {
+        return offset;
+    }
+
+    public boolean isLinked() {
+        return linked;
+    }
+
+    private void run() {
+        while (running) {
+            try (var connection = new Socket()) {
+                socket = connection;
+                connection.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+                connection.setTcpNoDelay(true);
+                connection.setSoTimeout(READ_TIMEOUT_MS);
+                follow(connection);
+            } catch (IOException ex) {
+                if (running) {
+                    log.warn("Replication link to {}:{} is down: {}", host, port, ex.toString());
+                }
+            }
+            linked = false;
+            if (running) {
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void follow(Socket connection) throws IOException {
+        var input = new DataInputStream(new BufferedInputStream(connection.getInputStream(), READ_BUFFER_SIZE));
+        var output = new DataOutputStream(connection.getOutputStream());
+        output.writeLong(replicationId);
+        output.writeLong(offset);
+        output.flush();
+        var mode = input.readUnsignedByte();
+        var primaryId = input.readLong();
+        var startOffset = input.readLong();
+        if (mode == FULL_SYNC) {
+            // until the dump is complete the keyspace matches no offset of any primary
+            replicationId = 0;
+            var start = System.nanoTime();
+            storage.clear();
+            var now = System.currentTimeMillis();
+            var entries = 0L;
+            for (var op = input.readUnsignedByte(); op != SYNC_END; op = input.readUnsignedByte()) {
+                RecordReader.apply(op, input, storage, now);
+                entries++;
+            }
+            fullSyncs.mark(1);
+            log.info(
+                    "Full sync from {}:{} done, offset:{}, entries:{}, took ms:{}",
+                    host,
+                    port,
+                    startOffset,
+                    entries,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } else if (mode == CONTINUE) {
+            log.info("Replication from {}:{} continues at offset {}", host, port, startOffset);
+        } else {
+            throw new IOException("Unexpected sync reply " + mode);
+        }
+        replicationId = primaryId;
+        offset = startOffset;
+        linked = true;
+        while (running) {
+            var op = input.readUnsignedByte();
+            if (op != HEARTBEAT) {
+                offset += RecordReader.apply(op, input, storage, System.currentTimeMillis());
+            }
+        }
+    }
+}
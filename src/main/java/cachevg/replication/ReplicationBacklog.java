@@ -0,0 +1,108 @@
+package cachevg.replication;
+
+import cachevg.persistence.RecordBuffer;
+import cachevg.storage.Key;
+import cachevg.storage.MutationListener;
+import cachevg.storage.Value;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// the latest mutations as one stream of records kept in a ring; an offset counts the bytes appended since start,
+// so a stream position stays valid until the ring wraps over it
+final class ReplicationBacklog implements MutationListener {
+    private final byte[] ring;
+    private final RecordBuffer records = new RecordBuffer();
+    private final Lock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private long endOffset;
+
+    ReplicationBacklog(int capacity) {
+        this.ring = new byte[capacity];
+    }
+
+    @Override
+    public void onPut(Key key, Value value) {
+        lock.lock();
+        try {
+            records.put(key, value);
+            append();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onRemove(Key key) {
+        lock.lock();
+        try {
+            records.remove(key);
+            append();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long endOffset() {
+        lock.lock();
+        try {
+            return endOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean contains(long offset) {
+        lock.lock();
+        try {
+            return offset >= startOffset() && offset <= endOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // copies the stream from the offset on, waiting up to the timeout for it to grow; returns the number of bytes
+    // copied, 0 on timeout, or -1 when the ring has already wrapped over the offset
+    int read(long offset, byte[] destination, long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            var nanos = timeoutNanos;
+            while (offset == endOffset && nanos > 0) {
+                nanos = appended.awaitNanos(nanos);
+            }
+            if (offset < startOffset() || offset > endOffset) {
+                return -1;
+            }
+            var length = (int) Math.min(destination.length, endOffset - offset);
+            for (var copied = 0; copied < length; ) {
+                var index = (int) ((offset + copied) % ring.length);
+                var chunk = Math.min(length - copied, ring.length - index);
+                System.arraycopy(ring, index, destination, copied, chunk);
+                copied += chunk;
+            }
+            return length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long startOffset() {
+        return Math.max(0, endOffset - ring.length);
+    }
+
+    // a record longer than the ring only leaves its tail behind, which no reader can start in
+    private void append() {
+        var length = records.size();
+        var skipped = Math.max(0, length - ring.length);
+        for (var copied = skipped; copied < length; ) {
+            var index = (int) ((endOffset + copied) % ring.length);
+            var chunk = Math.min(length - copied, ring.length - index);
+            records.copyTo(copied, ring, index, chunk);
+            copied += chunk;
+        }
+        endOffset += length;
+        records.clear();
+        appended.signalAll();
+    }
+}
@@ -0,0 +1,15 @@
+package cachevg.replication;
+
+// the replica opens with the replication id and offset it has applied up to, zeros when it has nothing.
+// The primary answers FULL_SYNC or CONTINUE, its replication id and the offset the mutation stream starts at;
+// a full sync then sends PUT records of the whole keyspace followed by SYNC_END. The mutation stream is the backlog
+// byte for byte, PUT and REMOVE records as RecordBuffer writes them, with HEARTBEAT between records while idle
+final class ReplicationProtocol {
+    static final byte FULL_SYNC = 0x10;
+    static final byte CONTINUE = 0x11;
+    static final byte SYNC_END = 0x12;
+    static final byte HEARTBEAT = 0x13;
+
+    private ReplicationProtocol() {
+    }
+}
@@ -0,0 +1,7 @@
+package cachevg.replication;
+
+public enum ReplicationRole {
+    PRIMARY,
+    // follows the primary at primaryHost:primaryReplicationPort and rejects writes from clients
+    REPLICA
+}
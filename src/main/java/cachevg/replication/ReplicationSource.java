@@ -0,0 +1,187 @@
+package cachevg.replication;
+
+import cachevg.exception.technical.ServerProcessingError;
+import cachevg.metrics.Meter;
+import cachevg.metrics.Metrics;
+import cachevg.persistence.RecordBuffer;
+import cachevg.storage.Storage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static cachevg.replication.ReplicationProtocol.*;
+
+// the primary side: every replica gets a thread that streams to it with blocking writes,
+// so a slow replica holds back only its own thread and never the shards
+public class ReplicationSource {
+    private static final Logger log = LogManager.getLogger(ReplicationSource.class);
+    private static final int CHUNK_BYTES = 64 * 1024;
+    private static final int DUMP_FLUSH_BYTES = 1024 * 1024;
+    private static final long HEARTBEAT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int port;
+    private final Storage storage;
+    private final ReplicationBacklog backlog;
+    private final long replicationId;
+    private final Set<Socket> replicas = ConcurrentHashMap.newKeySet();
+    private final Meter fullSyncs;
+    private final Meter partialSyncs;
+    private volatile boolean running;
+    private ServerSocket serverSocket;
+
+    public ReplicationSource(int port, int backlogBytes, Storage storage, Metrics metrics) {
+        this.port = port;
+        this.storage = storage;
+        this.backlog = new ReplicationBacklog(backlogBytes);
+        // a restarted primary has a new id, so that replicas never continue a stream it no longer has
+        this.replicationId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        this.fullSyncs = metrics.meter("replication.full_syncs");
+        this.partialSyncs = metrics.meter("replication.partial_syncs");
+        metrics.gauge("replication.replicas", replicas::size);
+        metrics.gauge("replication.offset", backlog::endOffset);
+    }
+
+    public void start() {
+        try {
+            serverSocket = new ServerSocket();
+            serverSocket.bind(new InetSocketAddress(port));
+        } catch (IOException ex) {
+            throw new ServerProcessingError(ex);
+        }
+        running = true;
+        storage.addMutationListener(backlog);
+        Thread.ofPlatform().name("replication-acceptor").daemon().start(this::acceptLoop);
+        log.info("Replication source started, port:{}, replicationId:{}", port, Long.toHexString(replicationId));
+    }
+
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        storage.removeMutationListener(backlog);
+        closeQuietly(serverSocket);
+        replicas.forEach(ReplicationSource::closeQuietly);
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                var socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                replicas.add(socket);
+                Thread.ofPlatform()
+                        .name("replica-" + socket.getRemoteSocketAddress())
+                        .daemon()
+                        .start(() -> serve(socket));
+            } catch (IOException ex) {
+                if (running) {
+                    log.warn("Failed to accept a replica", ex);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        var replica = socket.getRemoteSocketAddress();
+        try (socket) {
+            var input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            var output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), CHUNK_BYTES));
+            var requestedId = input.readLong();
+            var requestedOffset = input.readLong();
+            long offset;
+            if (requestedId == replicationId && backlog.contains(requestedOffset)) {
+                offset = requestedOffset;
+                writeSyncHeader(output, CONTINUE, offset);
+                output.flush();
+                partialSyncs.mark(1);
+                log.info("Replica {} continues from offset {}", replica, offset);
+            } else {
+                // the dump starts after the offset is taken, so mutations racing with it are both in the dump
+                // and in the stream; applying them twice leaves the replica in the same state
+                var start = System.nanoTime();
+                offset = backlog.endOffset();
+                writeSyncHeader(output, FULL_SYNC, offset);
+                dump(output);
+                output.writeByte(SYNC_END);
+                output.flush();
+                fullSyncs.mark(1);
+                log.info(
+                        "Replica {} fully synced up to offset {}, took ms:{}",
+                        replica,
+                        offset,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+            stream(output, offset, replica.toString());
+        } catch (IOException | UncheckedIOException ex) {
+            if (running) {
+                log.info("Replica {} disconnected: {}", replica, ex.toString());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            replicas.remove(socket);
+        }
+    }
+
+    private void writeSyncHeader(DataOutputStream output, byte mode, long offset) throws IOException {
+        output.writeByte(mode);
+        output.writeLong(replicationId);
+        output.writeLong(offset);
+    }
+
+    private void dump(DataOutputStream output) throws IOException {
+        var records = new RecordBuffer();
+        for (var shard = 0; shard < storage.shardsCount(); shard++) {
+            storage.forEachInShard(shard, (key, value) -> {
+                records.put(key, value);
+                if (records.size() >= DUMP_FLUSH_BYTES) {
+                    records.writeToUnchecked(output);
+                }
+            });
+        }
+        records.writeTo(output);
+    }
+
+    // whatever the backlog gained since the previous write goes out in one batch
+    private void stream(DataOutputStream output, long offset, String replica) throws IOException, InterruptedException {
+        var chunk = new byte[CHUNK_BYTES];
+        while (running) {
+            var read = backlog.read(offset, chunk, HEARTBEAT_NANOS);
+            if (read < 0) {
+                log.warn("Replica {} fell out of the replication backlog at offset {}, it has to sync again", replica, offset);
+                return;
+            }
+            if (read == 0) {
+                // the stream is caught up, so this is between two records
+                output.writeByte(HEARTBEAT);
+            } else {
+                output.write(chunk, 0, read);
+                offset += read;
+            }
+            output.flush();
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ex) {
+            log.debug("Failed to close {}", closeable, ex);
+        }
+    }
+}
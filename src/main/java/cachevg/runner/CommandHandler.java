@@ -0,0 +1,101 @@
+package cachevg.runner;
+
+import cachevg.connection.tcp.server.ClientEventsListener;
+import cachevg.connection.tcp.server.Server;
+import cachevg.connection.tcp.server.message.ClientMessage;
+import cachevg.command.Opcodes;
+import cachevg.command.Replies;
+import cachevg.persistence.AppendOnlyLog;
+import cachevg.processor.BinaryCommand;
+import cachevg.processor.ClientSession;
+import cachevg.processor.CommandMapper;
+import cachevg.processor.ReplyWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class CommandHandler implements ClientEventsListener {
+    private static final Logger log = LogManager.getLogger(CommandHandler.class);
+
+    private final Server server;
+    private final CommandMapper commandMapper;
+    private final AppendOnlyLog appendOnlyLog;
+    private final ThreadLocal<BinaryCommand> binaryCommands = ThreadLocal.withInitial(BinaryCommand::new);
+    private final ThreadLocal<ReplyWriter> replyWriters = ThreadLocal.withInitial(ReplyWriter::new);
+    // events of one connection are handled in order, so its session is gone only after its last message
+    private final Map<SocketAddress, ClientSession> sessions = new ConcurrentHashMap<>();
+
+    public CommandHandler(Server server, CommandMapper commandMapper) {
+        this(server, commandMapper, null);
+    }
+
+    public CommandHandler(Server server, CommandMapper commandMapper, AppendOnlyLog appendOnlyLog) {
+        this.server = server;
+        this.commandMapper = commandMapper;
+        this.appendOnlyLog = appendOnlyLog;
+    }
+
+    @Override
+    public boolean onConnected(SocketAddress clientAddress) {
+        log.info("connected client:{}", clientAddress);
+        sessions.put(clientAddress, new ClientSession(clientAddress));
+        return true;
+    }
+
+    @Override
+    public boolean onMessage(ClientMessage message) {
+        var clientAddress = message.clientAddress();
+        log.debug("{}:, message.frames:{}", clientAddress, message.frameCount());
+        var buffer = message.buffer().buffer();
+        var reply = replyWriters.get();
+        reply.clear();
+        reply.session(sessions.computeIfAbsent(clientAddress, ClientSession::new));
+        for (var frame = 0; frame < message.frameCount(); frame++) {
+            var offset = message.offset(frame);
+            var length = message.length(frame);
+            reply.beginFrame();
+            if (Opcodes.isBinary(buffer, offset, length)) {
+                processBinary(buffer, offset, length, reply);
+            } else {
+                reply.text(process(new String(message.message(frame), StandardCharsets.UTF_8)));
+            }
+            reply.endFrame();
+        }
+        if (appendOnlyLog != null) {
+            appendOnlyLog.awaitDurable();
+        }
+        // replies of the whole batch leave as one buffer, in the order the commands arrived
+        server.send(clientAddress, reply.flip());
+        return true;
+    }
+
+    @Override
+    public boolean onDisconnected(SocketAddress clientAddress) {
+        log.info("Disconnected client:{}", clientAddress);
+        var session = sessions.remove(clientAddress);
+        if (session != null) {
+            session.close();
+        }
+        return true;
+    }
+
+    private String process(String command) {
+        log.debug("command:{}", command);
+        var args = command.split(" ");
+        return commandMapper.mapCommandToProcessor(args[0]).process(args);
+    }
+
+    private void processBinary(ByteBuffer buffer, int offset, int length, ReplyWriter reply) {
+        var command = binaryCommands.get();
+        if (command.parse(buffer, offset, length)) {
+            commandMapper.mapOpcodeToProcessor(command.opcode()).process(command, reply);
+        } else {
+            reply.error(Replies.MALFORMED_COMMAND);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package cachevg.runner;
+
+import cachevg.concurrent.RingBuffer;
+import cachevg.concurrent.WaitStrategy;
+import cachevg.connection.tcp.server.message.ClientEvent;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+class Partition {
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final RingBuffer<ClientEvent> events;
+    private volatile Thread parkedWorker;
+
+    Partition(RingBuffer<ClientEvent> events) {
+        this.events = events;
+    }
+
+    boolean offer(ClientEvent event) {
+        if (!events.offer(event)) {
+            return false;
+        }
+        // pairs with the store of parkedWorker before the emptiness check in idle(), so a wakeup is never lost
+        VarHandle.fullFence();
+        var worker = parkedWorker;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+        }
+        return true;
+    }
+
+    int drain(Consumer<ClientEvent> consumer, int limit) {
+        return events.drain(consumer, limit);
+    }
+
+    int size() {
+        return events.size();
+    }
+
+    void idle(WaitStrategy waitStrategy, int rounds) {
+        if (waitStrategy.idle(rounds)) {
+            parkedWorker = Thread.currentThread();
+            if (events.isEmpty()) {
+                LockSupport.parkNanos(this, MAX_PARK_NANOS);
+            }
+            parkedWorker = null;
+        }
+    }
+}
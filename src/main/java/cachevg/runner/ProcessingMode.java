@@ -0,0 +1,6 @@
+package cachevg.runner;
+
+public enum ProcessingMode {
+    PLATFORM,
+    VIRTUAL
+}
@@ -0,0 +1,192 @@
+package cachevg.runner;
+
+import cachevg.concurrent.MpscRingBuffer;
+import cachevg.concurrent.SpscRingBuffer;
+import cachevg.concurrent.WaitStrategy;
+import cachevg.connection.tcp.server.ClientEventsListener;
+import cachevg.connection.tcp.server.message.ClientEvent;
+import cachevg.connection.tcp.server.message.ClientMessage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class ProcessingPipeline implements ClientEventsListener {
+    private static final Logger log = LogManager.getLogger(ProcessingPipeline.class);
+
+    private final ExecutorService executor;
+    private final ProcessingMode mode;
+    private final ClientEventsListener handler;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final WaitStrategy waitStrategy;
+    private final List<Partition> partitions = new ArrayList<>();
+    private final Map<SocketAddress, Partition> connections = new ConcurrentHashMap<>();
+
+    public ProcessingPipeline(
+            ExecutorService executor,
+            ProcessingMode mode,
+            int workers,
+            int batchSize,
+            int queueCapacity,
+            WaitStrategy waitStrategy,
+            ClientEventsListener handler) {
+        this.executor = executor;
+        this.mode = mode;
+        this.handler = handler;
+        this.batchSize = Math.max(1, batchSize);
+        this.queueCapacity = queueCapacity;
+        this.waitStrategy = waitStrategy;
+        // virtual mode gives every connection its own queue and thread, created when the client connects
+        if (mode == ProcessingMode.PLATFORM) {
+            for (var idx = 0; idx < Math.max(1, workers); idx++) {
+                // every reactor thread may publish into any partition
+                partitions.add(new Partition(new MpscRingBuffer<>(queueCapacity)));
+            }
+        }
+    }
+
+    public void start() {
+        log.info(
+                "Starting processing pipeline, mode:{}, workers:{}, batchSize:{}, waitStrategy:{}",
+                mode,
+                partitions.size(),
+                batchSize,
+                waitStrategy);
+        for (var partition : partitions) {
+            executor.submit(() -> work(partition));
+        }
+    }
+
+    public void stop() {
+        log.info("Processing pipeline is stopping...");
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                log.error("Processing workers are still running");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long queuedEvents() {
+        var events = 0L;
+        for (var partition : partitions) {
+            events += partition.size();
+        }
+        for (var partition : connections.values()) {
+            events += partition.size();
+        }
+        return events;
+    }
+
+    @Override
+    public boolean onConnected(SocketAddress clientAddress) {
+        if (mode == ProcessingMode.VIRTUAL && !connections.containsKey(clientAddress)) {
+            // only the connection's reactor publishes into its queue
+            var partition = new Partition(new SpscRingBuffer<>(queueCapacity));
+            connections.put(clientAddress, partition);
+            executor.submit(() -> work(partition));
+        }
+        return enqueueControl(ClientEvent.connected(clientAddress));
+    }
+
+    // a full queue rejects the message, the server keeps it and stops reading from the client until it is accepted
+    @Override
+    public boolean onMessage(ClientMessage message) {
+        var partition = partitionFor(message.clientAddress());
+        if (partition == null) {
+            log.error("No processing queue for client:{}", message.clientAddress());
+            message.release();
+            return true;
+        }
+        return partition.offer(ClientEvent.message(message));
+    }
+
+    @Override
+    public boolean onDisconnected(SocketAddress clientAddress) {
+        if (!enqueueControl(ClientEvent.disconnected(clientAddress))) {
+            return false;
+        }
+        connections.remove(clientAddress);
+        return true;
+    }
+
+    // a full queue rejects connection events like messages: waiting here would block the reactor, which is the
+    // thread that drains the replies the workers may be waiting to send
+    private boolean enqueueControl(ClientEvent event) {
+        var partition = partitionFor(event.clientAddress());
+        if (partition == null) {
+            log.error("No processing queue for client:{}, kind:{}", event.clientAddress(), event.kind());
+            return true;
+        }
+        if (partition.offer(event)) {
+            return true;
+        }
+        if (executor.isShutdown()) {
+            log.error("Event for client:{} is lost, kind:{}", event.clientAddress(), event.kind());
+            return true;
+        }
+        return false;
+    }
+
+    private Partition partitionFor(SocketAddress clientAddress) {
+        if (mode == ProcessingMode.VIRTUAL) {
+            return connections.get(clientAddress);
+        }
+        var hash = clientAddress.hashCode();
+        hash ^= hash >>> 16;
+        return partitions.get(Math.floorMod(hash, partitions.size()));
+    }
+
+    private void work(Partition partition) {
+        var batch = new ArrayList<ClientEvent>(batchSize);
+        Consumer<ClientEvent> collector = batch::add;
+        var connected = true;
+        var idleRounds = 0;
+        while (connected && !Thread.currentThread().isInterrupted()) {
+            if (partition.drain(collector, batchSize) == 0) {
+                partition.idle(waitStrategy, idleRounds++);
+                continue;
+            }
+            idleRounds = 0;
+            for (var event : batch) {
+                handle(event);
+                // a per-connection worker has nothing left to do once its client is gone
+                if (mode == ProcessingMode.VIRTUAL && event.kind() == ClientEvent.Kind.DISCONNECTED) {
+                    connected = false;
+                }
+            }
+            batch.clear();
+        }
+        log.info("Processing worker stopped");
+    }
+
+    private void handle(ClientEvent event) {
+        try {
+            switch (event.kind()) {
+                case CONNECTED -> handler.onConnected(event.clientAddress());
+                case MESSAGE -> handler.onMessage(event.message());
+                case DISCONNECTED -> handler.onDisconnected(event.clientAddress());
+            }
+        } catch (Exception ex) {
+            log.error("client:{}, kind:{}, error:{}", event.clientAddress(), event.kind(), ex.getMessage(), ex);
+        } finally {
+            release(event);
+        }
+    }
+
+    private void release(ClientEvent event) {
+        if (event.message() != null) {
+            event.message().release();
+        }
+    }
+}
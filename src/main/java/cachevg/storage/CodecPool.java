@@ -0,0 +1,54 @@
+package cachevg.storage;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// zlib streams hold native memory until end() is called. Thread locals would keep one per thread, and with a
+// thread per connection that is one per connection ever served, so idle codecs are kept in a few slots instead
+// and the ones that don't fit are ended right away. A closed pool keeps nothing
+final class CodecPool<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final Supplier<T> factory;
+    private final Consumer<T> end;
+    private volatile boolean closed;
+
+    CodecPool(int slots, Supplier<T> factory, Consumer<T> end) {
+        this.slots = new AtomicReferenceArray<>(Math.max(1, slots));
+        this.factory = factory;
+        this.end = end;
+    }
+
+    T acquire() {
+        for (var idx = 0; idx < slots.length(); idx++) {
+            if (slots.get(idx) != null) {
+                var codec = slots.getAndSet(idx, null);
+                if (codec != null) {
+                    return codec;
+                }
+            }
+        }
+        return factory.get();
+    }
+
+    void release(T codec) {
+        if (!closed) {
+            for (var idx = 0; idx < slots.length(); idx++) {
+                if (slots.get(idx) == null && slots.compareAndSet(idx, null, codec)) {
+                    return;
+                }
+            }
+        }
+        end.accept(codec);
+    }
+
+    void close() {
+        closed = true;
+        for (var idx = 0; idx < slots.length(); idx++) {
+            var codec = slots.getAndSet(idx, null);
+            if (codec != null) {
+                end.accept(codec);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package cachevg.storage;
+
+import cachevg.types.Type;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// getData() is the original length:int followed by the zlib stream, which is what the log, snapshots, replicas
+// and clients that negotiated compressed values get; the content methods inflate it for everyone else
+public final class CompressedValue extends Value {
+    static final int HEADER_BYTES = Integer.BYTES;
+    private static final CodecPool<Inflater> INFLATERS = new CodecPool<>(
+            Runtime.getRuntime().availableProcessors(),
+            Inflater::new,
+            Inflater::end);
+
+    CompressedValue(byte[] data, long expireAt) {
+        super(Type.COMPRESSED_STRING, data, expireAt);
+    }
+
+    @Override
+    public byte[] content() {
+        var content = new byte[contentLength()];
+        inflate(ByteBuffer.wrap(content));
+        return content;
+    }
+
+    @Override
+    public int contentLength() {
+        return ByteBuffer.wrap(getData()).getInt();
+    }
+
+    @Override
+    public void writeContentTo(ByteBuffer destination) {
+        inflate(destination);
+    }
+
+    // the pool is shared by every compressed value in the JVM, including ones loaded without a compressor,
+    // so it is only ended when the server shuts down
+    public static void endInflaters() {
+        INFLATERS.close();
+    }
+
+    private void inflate(ByteBuffer destination) {
+        var data = getData();
+        var inflater = INFLATERS.acquire();
+        inflater.reset();
+        inflater.setInput(data, HEADER_BYTES, data.length - HEADER_BYTES);
+        var end = destination.position() + contentLength();
+        try {
+            while (!inflater.finished()) {
+                var inflated = inflater.inflate(destination);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary() || !destination.hasRemaining())) {
+                    throw new IllegalStateException("Compressed value does not inflate to its length");
+                }
+            }
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Corrupted compressed value", ex);
+        } finally {
+            INFLATERS.release(inflater);
+        }
+        if (destination.position() != end) {
+            throw new IllegalStateException("Compressed value inflated to an unexpected length");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package cachevg.storage;
+
+import cachevg.types.Type;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// a primitive long changed in place under the shard lock; clients see its decimal form
+public final class CounterValue extends Value {
+    private long count;
+
+    public CounterValue(long count) {
+        this(count, 0);
+    }
+
+    CounterValue(long count, long expireAt) {
+        super(Type.COUNTER, null, expireAt);
+        this.count = count;
+    }
+
+    public long get() {
+        return count;
+    }
+
+    long add(long delta) {
+        count = Math.addExact(count, delta);
+        return count;
+    }
+
+    @Override
+    public byte[] getData() {
+        return Long.toString(count).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public int length() {
+        return getData().length;
+    }
+
+    @Override
+    public void writeTo(ByteBuffer destination) {
+        destination.put(getData());
+    }
+
+    @Override
+    public int weight() {
+        return Long.BYTES;
+    }
+
+    @Override
+    Value detach() {
+        return new CounterValue(count, getExpireAt());
+    }
+
+    static CounterValue decode(byte[] data, long expireAt) {
+        return new CounterValue(Long.parseLong(new String(data, StandardCharsets.US_ASCII)), expireAt);
+    }
+}
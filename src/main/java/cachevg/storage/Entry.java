@@ -0,0 +1,35 @@
+package cachevg.storage;
+
+public final class Entry {
+    final Key key;
+    Value value;
+    Entry next;
+    Entry timerPrev;
+    Entry timerNext;
+    int accessTime;
+    byte frequency;
+    boolean inWindow;
+    boolean removed;
+
+    Entry(Key key, Value value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    public Key key() {
+        return key;
+    }
+
+    public Value value() {
+        return value;
+    }
+
+    boolean isExpired(long nowMillis) {
+        var expireAt = value.getExpireAt();
+        return expireAt != 0 && expireAt <= nowMillis;
+    }
+
+    int weight() {
+        return EvictionPolicy.ENTRY_OVERHEAD_BYTES + key.getBytes().length + value.weight();
+    }
+}
@@ -0,0 +1,23 @@
+package cachevg.storage;
+
+import java.util.function.Supplier;
+
+public interface EvictionPolicy {
+    int ENTRY_OVERHEAD_BYTES = 96;
+    int SAMPLES = 5;
+
+    void onAccess(Entry entry);
+
+    void onInsert(Entry entry);
+
+    void onRemove(Entry entry);
+
+    Entry selectVictim(Supplier<Entry> sampler);
+
+    default void rebalance() {
+    }
+
+    static int clock() {
+        return (int) (System.nanoTime() >>> 20);
+    }
+}
@@ -0,0 +1,15 @@
+package cachevg.storage;
+
+public enum EvictionPolicyType {
+    LRU,
+    LFU,
+    TINY_LFU;
+
+    public EvictionPolicy create(int expectedEntries) {
+        return switch (this) {
+            case LRU -> new LruEvictionPolicy();
+            case LFU -> new LfuEvictionPolicy();
+            case TINY_LFU -> new TinyLfuEvictionPolicy(expectedEntries);
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package cachevg.storage;
+
+class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int expectedEntries) {
+        var size = Integer.highestOneBit(Math.max(64, expectedEntries) - 1) << 1;
+        this.table = new long[size];
+        this.mask = size - 1;
+        this.sampleSize = 10 * size;
+    }
+
+    int frequency(Key key) {
+        var hash = key.hashCode();
+        var frequency = Integer.MAX_VALUE;
+        for (var row = 0; row < 4; row++) {
+            var idx = index(hash, row);
+            var counter = (int) ((table[idx] >>> offset(hash, row)) & 0xF);
+            frequency = Math.min(frequency, counter);
+        }
+        return frequency;
+    }
+
+    void increment(Key key) {
+        var hash = key.hashCode();
+        var added = false;
+        for (var row = 0; row < 4; row++) {
+            var idx = index(hash, row);
+            var offset = offset(hash, row);
+            if (((table[idx] >>> offset) & 0xF) != 0xF) {
+                table[idx] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (var idx = 0; idx < table.length; idx++) {
+            table[idx] = (table[idx] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private int index(int hash, int row) {
+        var h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & mask;
+    }
+
+    private static int offset(int hash, int row) {
+        return ((hash >>> (row << 3)) & 0xF) << 2;
+    }
+}
@@ -0,0 +1,113 @@
+package cachevg.storage;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+class HashTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Entry[] buckets = new Entry[INITIAL_CAPACITY];
+    private int size;
+
+    Entry get(Key key) {
+        var entry = buckets[key.hashCode() & (buckets.length - 1)];
+        while (entry != null && !entry.key.equals(key)) {
+            entry = entry.next;
+        }
+        return entry;
+    }
+
+    void add(Entry entry) {
+        if (size >= buckets.length - (buckets.length >>> 2)) {
+            resize();
+        }
+        var idx = entry.key.hashCode() & (buckets.length - 1);
+        entry.next = buckets[idx];
+        buckets[idx] = entry;
+        size++;
+    }
+
+    Entry remove(Key key) {
+        var idx = key.hashCode() & (buckets.length - 1);
+        Entry prev = null;
+        var entry = buckets[idx];
+        while (entry != null && !entry.key.equals(key)) {
+            prev = entry;
+            entry = entry.next;
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (prev == null) {
+            buckets[idx] = entry.next;
+        } else {
+            prev.next = entry.next;
+        }
+        entry.next = null;
+        size--;
+        return entry;
+    }
+
+    // the table never shrinks, so after mass deletes the probe may have to walk far; it wraps around the whole
+    // table rather than give up, since evictions rely on getting an entry whenever there is one
+    Entry sample() {
+        if (size == 0) {
+            return null;
+        }
+        var random = ThreadLocalRandom.current();
+        var idx = random.nextInt(buckets.length);
+        for (var probe = 0; probe < buckets.length; probe++) {
+            var entry = buckets[(idx + probe) & (buckets.length - 1)];
+            if (entry != null) {
+                var skip = random.nextInt(4);
+                while (skip-- > 0 && entry.next != null) {
+                    entry = entry.next;
+                }
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    void forEach(Consumer<Entry> action) {
+        for (var bucket : buckets) {
+            for (var entry = bucket; entry != null; entry = entry.next) {
+                action.accept(entry);
+            }
+        }
+    }
+
+    // visits one bucket and returns the cursor of the next one, 0 once the table is done.
+    // the cursor counts with its bits reversed, so buckets split by a resize since the last call
+    // are still ahead of it and no entry present for the whole scan is missed
+    long scan(long cursor, Consumer<Entry> action) {
+        var mask = buckets.length - 1;
+        for (var entry = buckets[(int) (cursor & mask)]; entry != null; entry = entry.next) {
+            action.accept(entry);
+        }
+        cursor |= ~(long) mask;
+        cursor = Long.reverse(cursor);
+        cursor++;
+        return Long.reverse(cursor);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        var oldBuckets = buckets;
+        buckets = new Entry[oldBuckets.length << 1];
+        var mask = buckets.length - 1;
+        for (var bucket : oldBuckets) {
+            var entry = bucket;
+            while (entry != null) {
+                var next = entry.next;
+                var idx = entry.key.hashCode() & mask;
+                entry.next = buckets[idx];
+                buckets[idx] = entry;
+                entry = next;
+            }
+        }
+    }
+}
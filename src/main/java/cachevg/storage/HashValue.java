@@ -0,0 +1,162 @@
+package cachevg.storage;
+
+import cachevg.types.Type;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+// fields and values alternate in a packed array, scanned linearly, until the hash outgrows it;
+// from then on it is a HashMap. getData() is a sequence of length-prefixed fields and values
+public final class HashValue extends Value {
+    static final int PACKED_MAX_ENTRIES = 128;
+    private static final int HASHED_ENTRY_OVERHEAD = 64;
+
+    private PackedArray packed = new PackedArray();
+    private Map<Key, byte[]> hashed;
+    private long elementBytes;
+
+    public HashValue() {
+        this(0);
+    }
+
+    HashValue(long expireAt) {
+        super(Type.HASH, null, expireAt);
+    }
+
+    public int size() {
+        return hashed != null ? hashed.size() : packed.count() / 2;
+    }
+
+    public byte[] get(byte[] field) {
+        if (hashed != null) {
+            return hashed.get(new Key(field));
+        }
+        var position = find(field);
+        return position < 0 ? null : packed.element(packed.next(position));
+    }
+
+    // returns true when the field is new
+    public boolean put(byte[] field, byte[] value) {
+        if (hashed == null) {
+            var position = find(field);
+            if (position >= 0 && PackedArray.fits(value)) {
+                var valuePosition = packed.next(position);
+                elementBytes += value.length - packed.elementLength(valuePosition);
+                packed.replace(valuePosition, value);
+                return false;
+            }
+            if (position < 0 && PackedArray.fits(field) && PackedArray.fits(value) && size() < PACKED_MAX_ENTRIES) {
+                packed.insert(packed.end(), field);
+                packed.insert(packed.end(), value);
+                elementBytes += field.length + value.length;
+                return true;
+            }
+            convert();
+        }
+        var previous = hashed.put(new Key(field), value);
+        if (previous == null) {
+            elementBytes += field.length + value.length;
+            return true;
+        }
+        elementBytes += value.length - previous.length;
+        return false;
+    }
+
+    public boolean remove(byte[] field) {
+        if (hashed != null) {
+            var previous = hashed.remove(new Key(field));
+            if (previous == null) {
+                return false;
+            }
+            elementBytes -= field.length + previous.length;
+            return true;
+        }
+        var position = find(field);
+        if (position < 0) {
+            return false;
+        }
+        elementBytes -= field.length + packed.elementLength(packed.next(position));
+        packed.remove(position);
+        packed.remove(position);
+        return true;
+    }
+
+    public void forEach(BiConsumer<byte[], byte[]> action) {
+        if (hashed != null) {
+            hashed.forEach((field, value) -> action.accept(field.getBytes(), value));
+            return;
+        }
+        for (var position = 0; position < packed.end(); ) {
+            var valuePosition = packed.next(position);
+            action.accept(packed.element(position), packed.element(valuePosition));
+            position = packed.next(valuePosition);
+        }
+    }
+
+    @Override
+    public byte[] getData() {
+        var data = ByteBuffer.allocate(length());
+        writeTo(data);
+        return data.array();
+    }
+
+    @Override
+    public int length() {
+        return (int) elementBytes + 2 * Integer.BYTES * size();
+    }
+
+    @Override
+    public void writeTo(ByteBuffer destination) {
+        forEach((field, value) -> destination.putInt(field.length).put(field).putInt(value.length).put(value));
+    }
+
+    @Override
+    public int weight() {
+        return hashed != null ? (int) elementBytes + HASHED_ENTRY_OVERHEAD * hashed.size() : packed.capacity();
+    }
+
+    @Override
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    Value detach() {
+        var copy = new HashValue(getExpireAt());
+        copy.packed = packed.copy();
+        copy.hashed = hashed == null ? null : new HashMap<>(hashed);
+        copy.elementBytes = elementBytes;
+        return copy;
+    }
+
+    static HashValue decode(byte[] data, long expireAt) {
+        var hash = new HashValue(expireAt);
+        var source = ByteBuffer.wrap(data);
+        while (source.hasRemaining()) {
+            var field = new byte[source.getInt()];
+            source.get(field);
+            var value = new byte[source.getInt()];
+            source.get(value);
+            hash.put(field, value);
+        }
+        return hash;
+    }
+
+    private int find(byte[] field) {
+        for (var position = 0; position < packed.end(); position = packed.next(packed.next(position))) {
+            if (packed.matches(position, field)) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private void convert() {
+        var map = new HashMap<Key, byte[]>(PACKED_MAX_ENTRIES * 2);
+        forEach((field, value) -> map.put(new Key(field), value));
+        hashed = map;
+        packed = new PackedArray();
+    }
+}
@@ -0,0 +1,59 @@
+package cachevg.storage;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+public class LfuEvictionPolicy implements EvictionPolicy {
+    private static final int INITIAL_FREQUENCY = 5;
+    private static final int LOG_FACTOR = 10;
+    private static final int DECAY_PERIOD = 1 << 16;
+
+    @Override
+    public void onAccess(Entry entry) {
+        var frequency = decayedFrequency(entry, EvictionPolicy.clock());
+        if (frequency < 255) {
+            var baseline = Math.max(0, frequency - INITIAL_FREQUENCY);
+            if (ThreadLocalRandom.current().nextDouble() < 1.0 / (baseline * LOG_FACTOR + 1)) {
+                frequency++;
+            }
+        }
+        entry.frequency = (byte) frequency;
+        entry.accessTime = EvictionPolicy.clock();
+    }
+
+    @Override
+    public void onInsert(Entry entry) {
+        entry.frequency = INITIAL_FREQUENCY;
+        entry.accessTime = EvictionPolicy.clock();
+    }
+
+    @Override
+    public void onRemove(Entry entry) {
+        entry.removed = true;
+    }
+
+    @Override
+    public Entry selectVictim(Supplier<Entry> sampler) {
+        var now = EvictionPolicy.clock();
+        Entry victim = null;
+        var victimFrequency = Integer.MAX_VALUE;
+        for (var idx = 0; idx < SAMPLES; idx++) {
+            var candidate = sampler.get();
+            if (candidate != null) {
+                var frequency = decayedFrequency(candidate, now);
+                if (frequency < victimFrequency) {
+                    victim = candidate;
+                    victimFrequency = frequency;
+                }
+            }
+        }
+        return victim;
+    }
+
+    // the counter loses one point per ~65 seconds of idleness
+    private static int decayedFrequency(Entry entry, int now) {
+        var frequency = entry.frequency & 0xFF;
+        var periods = (now - entry.accessTime) / DECAY_PERIOD;
+        return periods > 0 ? Math.max(0, frequency - periods) : frequency;
+    }
+}
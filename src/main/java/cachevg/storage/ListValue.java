@@ -0,0 +1,185 @@
+package cachevg.storage;
+
+import cachevg.types.Type;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+// elements stay in a packed array until the list outgrows it; from then on they live in a deque of arrays.
+// getData() is a sequence of length-prefixed elements from head to tail
+public final class ListValue extends Value {
+    static final int PACKED_MAX_ENTRIES = 128;
+    private static final int LINKED_ENTRY_OVERHEAD = 32;
+
+    private PackedArray packed = new PackedArray();
+    private ArrayDeque<byte[]> linked;
+    private long elementBytes;
+
+    public ListValue() {
+        this(0);
+    }
+
+    ListValue(long expireAt) {
+        super(Type.LIST, null, expireAt);
+    }
+
+    public int size() {
+        return linked != null ? linked.size() : packed.count();
+    }
+
+    public int pushFirst(byte[] element) {
+        if (linked == null && !fits(element)) {
+            convert();
+        }
+        if (linked != null) {
+            linked.addFirst(element);
+        } else {
+            packed.insert(0, element);
+        }
+        elementBytes += element.length;
+        return size();
+    }
+
+    public int pushLast(byte[] element) {
+        if (linked == null && !fits(element)) {
+            convert();
+        }
+        if (linked != null) {
+            linked.addLast(element);
+        } else {
+            packed.insert(packed.end(), element);
+        }
+        elementBytes += element.length;
+        return size();
+    }
+
+    public byte[] popFirst() {
+        if (size() == 0) {
+            return null;
+        }
+        byte[] element;
+        if (linked != null) {
+            element = linked.pollFirst();
+        } else {
+            element = packed.element(0);
+            packed.remove(0);
+        }
+        elementBytes -= element.length;
+        return element;
+    }
+
+    public byte[] popLast() {
+        if (size() == 0) {
+            return null;
+        }
+        byte[] element;
+        if (linked != null) {
+            element = linked.pollLast();
+        } else {
+            var last = 0;
+            for (var position = packed.next(0); position < packed.end(); position = packed.next(position)) {
+                last = position;
+            }
+            element = packed.element(last);
+            packed.remove(last);
+        }
+        elementBytes -= element.length;
+        return element;
+    }
+
+    // start and stop are inclusive, negative indexes count from the tail
+    public int rangeLength(long start, long stop) {
+        var from = first(start);
+        var to = last(stop);
+        return from > to ? 0 : (int) (to - from + 1);
+    }
+
+    public void range(long start, long stop, Consumer<byte[]> action) {
+        var from = first(start);
+        var to = last(stop);
+        var index = 0;
+        if (linked != null) {
+            for (var element : linked) {
+                if (index > to) {
+                    break;
+                }
+                if (index++ >= from) {
+                    action.accept(element);
+                }
+            }
+        } else {
+            for (var position = 0; position < packed.end() && index <= to; position = packed.next(position)) {
+                if (index++ >= from) {
+                    action.accept(packed.element(position));
+                }
+            }
+        }
+    }
+
+    @Override
+    public byte[] getData() {
+        var data = ByteBuffer.allocate(length());
+        writeTo(data);
+        return data.array();
+    }
+
+    @Override
+    public int length() {
+        return (int) elementBytes + Integer.BYTES * size();
+    }
+
+    @Override
+    public void writeTo(ByteBuffer destination) {
+        range(0, -1, element -> destination.putInt(element.length).put(element));
+    }
+
+    @Override
+    public int weight() {
+        return linked != null ? (int) elementBytes + LINKED_ENTRY_OVERHEAD * linked.size() : packed.capacity();
+    }
+
+    @Override
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    Value detach() {
+        var copy = new ListValue(getExpireAt());
+        copy.packed = packed.copy();
+        copy.linked = linked == null ? null : new ArrayDeque<>(linked);
+        copy.elementBytes = elementBytes;
+        return copy;
+    }
+
+    static ListValue decode(byte[] data, long expireAt) {
+        var list = new ListValue(expireAt);
+        var source = ByteBuffer.wrap(data);
+        while (source.hasRemaining()) {
+            var element = new byte[source.getInt()];
+            source.get(element);
+            list.pushLast(element);
+        }
+        return list;
+    }
+
+    private long first(long start) {
+        return Math.max(0, start < 0 ? start + size() : start);
+    }
+
+    private long last(long stop) {
+        return Math.min(size() - 1, stop < 0 ? stop + size() : stop);
+    }
+
+    private boolean fits(byte[] element) {
+        return PackedArray.fits(element) && packed.count() < PACKED_MAX_ENTRIES;
+    }
+
+    private void convert() {
+        var deque = new ArrayDeque<byte[]>(PACKED_MAX_ENTRIES * 2);
+        range(0, -1, deque::addLast);
+        linked = deque;
+        packed = new PackedArray();
+    }
+}
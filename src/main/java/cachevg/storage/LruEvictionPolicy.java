@@ -0,0 +1,34 @@
+package cachevg.storage;
+
+import java.util.function.Supplier;
+
+public class LruEvictionPolicy implements EvictionPolicy {
+
+    @Override
+    public void onAccess(Entry entry) {
+        entry.accessTime = EvictionPolicy.clock();
+    }
+
+    @Override
+    public void onInsert(Entry entry) {
+        entry.accessTime = EvictionPolicy.clock();
+    }
+
+    @Override
+    public void onRemove(Entry entry) {
+        entry.removed = true;
+    }
+
+    @Override
+    public Entry selectVictim(Supplier<Entry> sampler) {
+        var now = EvictionPolicy.clock();
+        Entry victim = null;
+        for (var idx = 0; idx < SAMPLES; idx++) {
+            var candidate = sampler.get();
+            if (candidate != null && (victim == null || now - candidate.accessTime > now - victim.accessTime)) {
+                victim = candidate;
+            }
+        }
+        return victim;
+    }
+}
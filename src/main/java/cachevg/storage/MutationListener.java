@@ -0,0 +1,53 @@
+package cachevg.storage;
+
+// called under the shard write lock, in the order the mutations are applied to the shard; afterUnlock follows
+// on the same thread once the lock is released, for work that must not hold the shard up, such as network I/O
+public interface MutationListener {
+    MutationListener NONE = new MutationListener() {
+        @Override
+        public void onPut(Key key, Value value) {
+        }
+
+        @Override
+        public void onRemove(Key key) {
+        }
+    };
+
+    static MutationListener of(MutationListener... listeners) {
+        if (listeners.length == 0) {
+            return NONE;
+        }
+        if (listeners.length == 1) {
+            return listeners[0];
+        }
+        return new MutationListener() {
+            @Override
+            public void onPut(Key key, Value value) {
+                for (var listener : listeners) {
+                    listener.onPut(key, value);
+                }
+            }
+
+            @Override
+            public void onRemove(Key key) {
+                for (var listener : listeners) {
+                    listener.onRemove(key);
+                }
+            }
+
+            @Override
+            public void afterUnlock() {
+                for (var listener : listeners) {
+                    listener.afterUnlock();
+                }
+            }
+        };
+    }
+
+    void onPut(Key key, Value value);
+
+    void onRemove(Key key);
+
+    default void afterUnlock() {
+    }
+}
@@ -0,0 +1,53 @@
+package cachevg.storage;
+
+import cachevg.types.Type;
+
+import java.nio.ByteBuffer;
+
+class OffHeapValue extends Value {
+    private final SlabAllocator allocator;
+    private final long address;
+    private final int length;
+
+    OffHeapValue(Value value, SlabAllocator allocator) {
+        super(value.getType(), null, value.getExpireAt());
+        var data = value.getData();
+        this.allocator = allocator;
+        this.length = data.length;
+        this.address = allocator.allocate(Math.max(1, length));
+        allocator.write(address, data);
+    }
+
+    @Override
+    public byte[] getData() {
+        var data = new byte[length];
+        allocator.read(address, data);
+        return data;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public void writeTo(ByteBuffer destination) {
+        allocator.read(address, length, destination);
+    }
+
+    // decoded by type, so a compressed string comes back as a CompressedValue that inflates its content
+    @Override
+    Value detach() {
+        return Value.decode(getType(), getData(), getExpireAt());
+    }
+
+    @Override
+    void release() {
+        allocator.free(address, Math.max(1, length));
+    }
+
+    static boolean canStore(Value value, SlabAllocator allocator) {
+        return (value.getType() == Type.STRING || value.getType() == Type.COMPRESSED_STRING)
+               && value.length() <= allocator.maxChunkSize();
+    }
+}
@@ -0,0 +1,89 @@
+package cachevg.storage;
+
+import java.util.Arrays;
+
+// short byte strings laid out back to back in one array, each behind a one-byte length;
+// positions are byte offsets of the length prefix, so iteration is first() / next(position) until end()
+final class PackedArray {
+    static final int MAX_ELEMENT_BYTES = 64;
+    private static final int INITIAL_CAPACITY = 32;
+
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+    private int end;
+    private int count;
+
+    PackedArray() {
+    }
+
+    private PackedArray(PackedArray source) {
+        this.bytes = Arrays.copyOf(source.bytes, source.end);
+        this.end = source.end;
+        this.count = source.count;
+    }
+
+    static boolean fits(byte[] element) {
+        return element.length <= MAX_ELEMENT_BYTES;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int capacity() {
+        return bytes.length;
+    }
+
+    int end() {
+        return end;
+    }
+
+    int next(int position) {
+        return position + 1 + elementLength(position);
+    }
+
+    int elementLength(int position) {
+        return bytes[position] & 0xFF;
+    }
+
+    boolean matches(int position, byte[] element) {
+        var from = position + 1;
+        return Arrays.equals(bytes, from, from + elementLength(position), element, 0, element.length);
+    }
+
+    byte[] element(int position) {
+        var from = position + 1;
+        return Arrays.copyOfRange(bytes, from, from + elementLength(position));
+    }
+
+    void insert(int position, byte[] element) {
+        var size = 1 + element.length;
+        if (end + size > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, end + size));
+        }
+        System.arraycopy(bytes, position, bytes, position + size, end - position);
+        bytes[position] = (byte) element.length;
+        System.arraycopy(element, 0, bytes, position + 1, element.length);
+        end += size;
+        count++;
+    }
+
+    void remove(int position) {
+        var next = next(position);
+        System.arraycopy(bytes, next, bytes, position, end - next);
+        end -= next - position;
+        count--;
+    }
+
+    void replace(int position, byte[] element) {
+        if (elementLength(position) == element.length) {
+            System.arraycopy(element, 0, bytes, position + 1, element.length);
+        } else {
+            remove(position);
+            insert(position, element);
+        }
+    }
+
+    PackedArray copy() {
+        return new PackedArray(this);
+    }
+}
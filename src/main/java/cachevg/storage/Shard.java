@@ -0,0 +1,388 @@
+package cachevg.storage;
+
+import java.util.ArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+class Shard {
+    private static final int MAX_SCAN_BUCKETS_PER_KEY = 10;
+    private static final int MAX_SCAN_COUNT = 1_000;
+
+    private final HashTable table = new HashTable();
+    private final Supplier<Entry> sampler = table::sample;
+    private final TimingWheel timingWheel = new TimingWheel(System.currentTimeMillis());
+    private final Consumer<Entry> expiration = this::expire;
+    private final EvictionPolicy evictionPolicy;
+    private final SlabAllocator allocator;
+    private final long maxMemoryBytes;
+    private final long maxEntries;
+    private final Lock readLock;
+    private final Lock writeLock;
+    private volatile MutationListener mutationListener = MutationListener.NONE;
+    private long usedMemoryBytes;
+    private long evictions;
+    private long expirations;
+
+    Shard(EvictionPolicy evictionPolicy, SlabAllocator allocator, long maxMemoryBytes, long maxEntries) {
+        var lock = new ReentrantReadWriteLock();
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
+        this.evictionPolicy = evictionPolicy;
+        this.allocator = allocator;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxEntries = maxEntries;
+    }
+
+    Value get(Key key) {
+        readLock.lock();
+        try {
+            return find(key, System.currentTimeMillis());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    void getAll(Key[] keys, int[] order, int from, int to, Value[] values) {
+        readLock.lock();
+        try {
+            var now = System.currentTimeMillis();
+            for (var idx = from; idx < to; idx++) {
+                values[order[idx]] = find(keys[order[idx]], now);
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    Value put(Key key, Value value) {
+        writeLock.lock();
+        try {
+            return upsert(key, value, System.currentTimeMillis());
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    void putAll(Key[] keys, Value[] values, int[] order, int from, int to) {
+        writeLock.lock();
+        try {
+            var now = System.currentTimeMillis();
+            for (var idx = from; idx < to; idx++) {
+                upsert(keys[order[idx]], values[order[idx]], now);
+            }
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    Value remove(Key key) {
+        writeLock.lock();
+        try {
+            return delete(key, System.currentTimeMillis());
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    int removeAll(Key[] keys, int[] order, int from, int to) {
+        writeLock.lock();
+        try {
+            var now = System.currentTimeMillis();
+            var removed = 0;
+            for (var idx = from; idx < to; idx++) {
+                if (delete(keys[order[idx]], now) != null) {
+                    removed++;
+                }
+            }
+            return removed;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    long increment(Key key, long delta) {
+        writeLock.lock();
+        try {
+            var now = System.currentTimeMillis();
+            var entry = table.get(key);
+            if (entry == null || entry.isExpired(now)) {
+                upsert(key, new CounterValue(delta), now);
+                return delta;
+            }
+            if (!(entry.value instanceof CounterValue counter)) {
+                throw new WrongTypeException(entry.value.getType());
+            }
+            var count = counter.add(delta);
+            evictionPolicy.onAccess(entry);
+            mutationListener.onPut(key, counter);
+            return count;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    <V extends Value, R> R read(Key key, Class<V> kind, Function<V, R> operation) {
+        readLock.lock();
+        try {
+            var entry = table.get(key);
+            if (entry == null || entry.isExpired(System.currentTimeMillis())) {
+                return null;
+            }
+            evictionPolicy.onAccess(entry);
+            return operation.apply(typed(entry, kind));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    <V extends Value, R> R update(Key key, Class<V> kind, Supplier<V> empty, Function<V, R> operation) {
+        writeLock.lock();
+        try {
+            var now = System.currentTimeMillis();
+            var entry = table.get(key);
+            if (entry == null || entry.isExpired(now)) {
+                var value = empty.get();
+                var result = operation.apply(value);
+                if (!value.isEmpty()) {
+                    upsert(key, value, now);
+                }
+                return result;
+            }
+            var value = typed(entry, kind);
+            var weight = entry.weight();
+            var result = operation.apply(value);
+            if (value.isEmpty()) {
+                delete(entry);
+                mutationListener.onRemove(key);
+            } else {
+                usedMemoryBytes += entry.weight() - weight;
+                evictionPolicy.onAccess(entry);
+                mutationListener.onPut(key, value);
+                evictIfNeeded();
+            }
+            return result;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    private static <V extends Value> V typed(Entry entry, Class<V> kind) {
+        if (!kind.isInstance(entry.value)) {
+            throw new WrongTypeException(entry.value.getType());
+        }
+        return kind.cast(entry.value);
+    }
+
+    private Value find(Key key, long now) {
+        var entry = table.get(key);
+        if (entry == null || entry.isExpired(now)) {
+            return null;
+        }
+        evictionPolicy.onAccess(entry);
+        return entry.value.detach();
+    }
+
+    private Value upsert(Key key, Value value, long now) {
+        var entry = table.get(key);
+        Value previous = null;
+        if (entry == null) {
+            entry = new Entry(key, store(value));
+            table.add(entry);
+            evictionPolicy.onInsert(entry);
+        } else {
+            previous = entry.isExpired(now) ? null : entry.value.detach();
+            usedMemoryBytes -= entry.weight();
+            entry.value.release();
+            entry.value = store(value);
+            evictionPolicy.onAccess(entry);
+        }
+        usedMemoryBytes += entry.weight();
+        if (value.getExpireAt() != 0) {
+            timingWheel.schedule(entry, value.getExpireAt());
+        } else {
+            timingWheel.cancel(entry);
+        }
+        mutationListener.onPut(key, value);
+        evictIfNeeded();
+        return previous;
+    }
+
+    private Value delete(Key key, long now) {
+        var entry = table.get(key);
+        if (entry == null) {
+            return null;
+        }
+        var previous = entry.isExpired(now) ? null : entry.value.detach();
+        delete(entry);
+        mutationListener.onRemove(key);
+        return previous;
+    }
+
+    // visits buckets from the cursor on until at least count live keys were seen, the table is done,
+    // or the scan has looked at MAX_SCAN_BUCKETS_PER_KEY times count buckets; returns the next cursor.
+    // count is capped at MAX_SCAN_COUNT to bound how long writers wait for the read lock
+    long scan(long cursor, int count, Consumer<Key> action) {
+        readLock.lock();
+        try {
+            var now = System.currentTimeMillis();
+            var seen = new int[1];
+            Consumer<Entry> visitor = entry -> {
+                if (!entry.isExpired(now)) {
+                    seen[0]++;
+                    action.accept(entry.key);
+                }
+            };
+            var limit = Math.min(Math.max(1, count), MAX_SCAN_COUNT);
+            var maxBuckets = limit * MAX_SCAN_BUCKETS_PER_KEY;
+            var buckets = 0;
+            do {
+                cursor = table.scan(cursor, visitor);
+            } while (cursor != 0 && seen[0] < limit && ++buckets < maxBuckets);
+            return cursor;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    void forEach(BiConsumer<Key, Value> action) {
+        var keys = new ArrayList<Key>();
+        var values = new ArrayList<Value>();
+        readLock.lock();
+        try {
+            var now = System.currentTimeMillis();
+            table.forEach(entry -> {
+                if (!entry.isExpired(now)) {
+                    keys.add(entry.key);
+                    values.add(entry.value.detach());
+                }
+            });
+        } finally {
+            readLock.unlock();
+        }
+        for (var idx = 0; idx < keys.size(); idx++) {
+            action.accept(keys.get(idx), values.get(idx));
+        }
+    }
+
+    void clear() {
+        writeLock.lock();
+        try {
+            var entries = new ArrayList<Entry>(table.size());
+            table.forEach(entries::add);
+            for (var entry : entries) {
+                delete(entry);
+                mutationListener.onRemove(entry.key);
+            }
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    void setMutationListener(MutationListener mutationListener) {
+        this.mutationListener = mutationListener;
+    }
+
+    int size() {
+        readLock.lock();
+        try {
+            return table.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    long usedMemoryBytes() {
+        readLock.lock();
+        try {
+            return usedMemoryBytes;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    long evictions() {
+        readLock.lock();
+        try {
+            return evictions;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    long offHeapBytes() {
+        readLock.lock();
+        try {
+            return allocator == null ? 0 : allocator.allocatedBytes();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    long expirations() {
+        readLock.lock();
+        try {
+            return expirations;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    void expireEntries(long nowMillis) {
+        writeLock.lock();
+        try {
+            timingWheel.advance(nowMillis, expiration);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // listeners flush their side effects after the lock is released
+    private void unlockWrite() {
+        writeLock.unlock();
+        mutationListener.afterUnlock();
+    }
+
+    // listeners hear about expirations like about deletes, so the log, replicas and tracking clients drop the key too
+    private void expire(Entry entry) {
+        delete(entry);
+        expirations++;
+        mutationListener.onRemove(entry.key);
+    }
+
+    private void delete(Entry entry) {
+        table.remove(entry.key);
+        usedMemoryBytes -= entry.weight();
+        timingWheel.cancel(entry);
+        evictionPolicy.onRemove(entry);
+        entry.value.release();
+    }
+
+    private Value store(Value value) {
+        return allocator != null && OffHeapValue.canStore(value, allocator)
+                ? new OffHeapValue(value, allocator)
+                : value;
+    }
+
+    // like expirations, evictions reach the listeners as deletes
+    private void evictIfNeeded() {
+        while (isOverCapacity()) {
+            var victim = evictionPolicy.selectVictim(sampler);
+            if (victim == null) {
+                break;
+            }
+            delete(victim);
+            evictions++;
+            mutationListener.onRemove(victim.key);
+        }
+        evictionPolicy.rebalance();
+    }
+
+    private boolean isOverCapacity() {
+        return maxMemoryBytes > 0 && usedMemoryBytes > maxMemoryBytes
+               || maxEntries > 0 && table.size() > maxEntries;
+    }
+}
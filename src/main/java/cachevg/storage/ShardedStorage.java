@@ -0,0 +1,243 @@
+package cachevg.storage;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class ShardedStorage implements Storage {
+    private static final Logger log = LogManager.getLogger(ShardedStorage.class);
+    private static final int MAX_SHARDS = 1 << 16;
+    private static final int MAX_OFF_HEAP_VALUE_SIZE = 2 * 1024 * 1024;
+    private static final int SCAN_SHARD_SHIFT = 48;
+    private static final long SCAN_CURSOR_MASK = (1L << SCAN_SHARD_SHIFT) - 1;
+
+    private final Shard[] shards;
+    private final int shift;
+    private final List<MutationListener> mutationListeners = new ArrayList<>();
+
+    public ShardedStorage(int shardsCount) {
+        this(shardsCount, 0, 0, EvictionPolicyType.LRU, StorageMode.HEAP);
+    }
+
+    public ShardedStorage(
+            int shardsCount,
+            long maxMemoryBytes,
+            long maxEntries,
+            EvictionPolicyType evictionPolicyType,
+            StorageMode storageMode) {
+        var count = shardsCount <= 1 ? 1 : Integer.highestOneBit(Math.min(shardsCount - 1, MAX_SHARDS - 1)) << 1;
+        var shardMaxMemoryBytes = maxMemoryBytes > 0 ? Math.max(1, maxMemoryBytes / count) : 0;
+        var shardMaxEntries = maxEntries > 0 ? Math.max(1, maxEntries / count) : 0;
+        var expectedEntries = shardMaxEntries > 0
+                ? shardMaxEntries
+                : shardMaxMemoryBytes / (EvictionPolicy.ENTRY_OVERHEAD_BYTES + 64);
+        this.shards = new Shard[count];
+        for (var idx = 0; idx < count; idx++) {
+            var evictionPolicy = evictionPolicyType.create((int) Math.min(expectedEntries, 1 << 24));
+            var allocator = storageMode == StorageMode.OFF_HEAP ? new SlabAllocator(MAX_OFF_HEAP_VALUE_SIZE) : null;
+            shards[idx] = new Shard(evictionPolicy, allocator, shardMaxMemoryBytes, shardMaxEntries);
+        }
+        // the top bits select the shard, so that HashMap buckets inside a shard are still spread by the low bits
+        this.shift = Integer.SIZE - Integer.numberOfTrailingZeros(count);
+        log.info(
+                "Storage created, shards:{}, maxMemoryBytes:{}, maxEntries:{}, evictionPolicy:{}, mode:{}",
+                count,
+                maxMemoryBytes,
+                maxEntries,
+                evictionPolicyType,
+                storageMode);
+    }
+
+    @Override
+    public Value get(Key key) {
+        return shardFor(key).get(key);
+    }
+
+    @Override
+    public Value put(Key key, Value value) {
+        return shardFor(key).put(key, value);
+    }
+
+    @Override
+    public Value remove(Key key) {
+        return shardFor(key).remove(key);
+    }
+
+    @Override
+    public Value[] getAll(Key[] keys) {
+        var values = new Value[keys.length];
+        var bounds = new int[shards.length + 1];
+        var order = groupByShard(keys, bounds);
+        for (var idx = 0; idx < shards.length; idx++) {
+            if (bounds[idx] < bounds[idx + 1]) {
+                shards[idx].getAll(keys, order, bounds[idx], bounds[idx + 1], values);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void putAll(Key[] keys, Value[] values) {
+        var bounds = new int[shards.length + 1];
+        var order = groupByShard(keys, bounds);
+        for (var idx = 0; idx < shards.length; idx++) {
+            if (bounds[idx] < bounds[idx + 1]) {
+                shards[idx].putAll(keys, values, order, bounds[idx], bounds[idx + 1]);
+            }
+        }
+    }
+
+    @Override
+    public int removeAll(Key[] keys) {
+        var bounds = new int[shards.length + 1];
+        var order = groupByShard(keys, bounds);
+        var removed = 0;
+        for (var idx = 0; idx < shards.length; idx++) {
+            if (bounds[idx] < bounds[idx + 1]) {
+                removed += shards[idx].removeAll(keys, order, bounds[idx], bounds[idx + 1]);
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public long increment(Key key, long delta) {
+        return shardFor(key).increment(key, delta);
+    }
+
+    @Override
+    public <V extends Value, R> R read(Key key, Class<V> kind, Function<V, R> operation) {
+        return shardFor(key).read(key, kind, operation);
+    }
+
+    @Override
+    public <V extends Value, R> R update(Key key, Class<V> kind, Supplier<V> empty, Function<V, R> operation) {
+        return shardFor(key).update(key, kind, empty, operation);
+    }
+
+    // the shard index sits in the top bits of the cursor, the shard's own bucket cursor in the rest
+    @Override
+    public long scan(long cursor, int count, Consumer<Key> action) {
+        var shard = (int) (cursor >>> SCAN_SHARD_SHIFT);
+        var shardCursor = cursor & SCAN_CURSOR_MASK;
+        var seen = new int[1];
+        Consumer<Key> counting = key -> {
+            seen[0]++;
+            action.accept(key);
+        };
+        while (shard < shards.length) {
+            shardCursor = shards[shard].scan(shardCursor, count - seen[0], counting);
+            if (shardCursor == 0) {
+                shard++;
+            }
+            if (seen[0] >= count) {
+                break;
+            }
+        }
+        return shard < shards.length ? (long) shard << SCAN_SHARD_SHIFT | shardCursor : 0;
+    }
+
+    @Override
+    public int size() {
+        var size = 0;
+        for (var shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public StorageStats stats() {
+        long entries = 0;
+        long usedMemoryBytes = 0;
+        long evictions = 0;
+        long expirations = 0;
+        long offHeapBytes = 0;
+        for (var shard : shards) {
+            entries += shard.size();
+            usedMemoryBytes += shard.usedMemoryBytes();
+            evictions += shard.evictions();
+            expirations += shard.expirations();
+            offHeapBytes += shard.offHeapBytes();
+        }
+        return new StorageStats(entries, usedMemoryBytes, evictions, expirations, offHeapBytes);
+    }
+
+    @Override
+    public void expireEntries() {
+        var now = System.currentTimeMillis();
+        for (var shard : shards) {
+            shard.expireEntries(now);
+        }
+    }
+
+    @Override
+    public int shardsCount() {
+        return shards.length;
+    }
+
+    @Override
+    public void forEachInShard(int shard, BiConsumer<Key, Value> action) {
+        shards[shard].forEach(action);
+    }
+
+    @Override
+    public void clear() {
+        for (var shard : shards) {
+            shard.clear();
+        }
+    }
+
+    @Override
+    public synchronized void addMutationListener(MutationListener listener) {
+        mutationListeners.add(listener);
+        publishMutationListeners();
+    }
+
+    @Override
+    public synchronized void removeMutationListener(MutationListener listener) {
+        mutationListeners.remove(listener);
+        publishMutationListeners();
+    }
+
+    private void publishMutationListeners() {
+        var listener = MutationListener.of(mutationListeners.toArray(new MutationListener[0]));
+        for (var shard : shards) {
+            shard.setMutationListener(listener);
+        }
+    }
+
+    // counting sort of the key positions by shard, so that every shard is locked once per batch;
+    // keys of shard i end up in order[bounds[i]..bounds[i + 1]) in their original relative order
+    private int[] groupByShard(Key[] keys, int[] bounds) {
+        var keyShards = new int[keys.length];
+        for (var idx = 0; idx < keys.length; idx++) {
+            keyShards[idx] = shardIndex(keys[idx]);
+            bounds[keyShards[idx] + 1]++;
+        }
+        for (var idx = 0; idx < shards.length; idx++) {
+            bounds[idx + 1] += bounds[idx];
+        }
+        var next = Arrays.copyOf(bounds, shards.length);
+        var order = new int[keys.length];
+        for (var idx = 0; idx < keys.length; idx++) {
+            order[next[keyShards[idx]]++] = idx;
+        }
+        return order;
+    }
+
+    int shardIndex(Key key) {
+        return shards.length == 1 ? 0 : key.hashCode() >>> shift;
+    }
+
+    private Shard shardFor(Key key) {
+        return shards[shardIndex(key)];
+    }
+}
@@ -0,0 +1,93 @@
+package cachevg.storage;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class SlabAllocator {
+    private static final int MIN_CHUNK_SIZE = 64;
+    private static final int MIN_PAGE_SIZE = 64 * 1024;
+    private static final double GROWTH_FACTOR = 1.25;
+
+    private final int[] chunkSizes;
+    private final long[][] freeChunks;
+    private final int[] freeCounts;
+    private final List<ByteBuffer> pages = new ArrayList<>();
+    private long allocatedBytes;
+
+    SlabAllocator(int maxChunkSize) {
+        var sizes = new ArrayList<Integer>();
+        for (var size = MIN_CHUNK_SIZE; size < maxChunkSize; size = (int) (size * GROWTH_FACTOR + 7) & ~7) {
+            sizes.add(size);
+        }
+        sizes.add(maxChunkSize);
+        this.chunkSizes = sizes.stream().mapToInt(Integer::intValue).toArray();
+        this.freeChunks = new long[chunkSizes.length][16];
+        this.freeCounts = new int[chunkSizes.length];
+    }
+
+    int maxChunkSize() {
+        return chunkSizes[chunkSizes.length - 1];
+    }
+
+    long allocate(int size) {
+        var sizeClass = sizeClass(size);
+        if (freeCounts[sizeClass] == 0) {
+            addPage(sizeClass);
+        }
+        return freeChunks[sizeClass][--freeCounts[sizeClass]];
+    }
+
+    void free(long address, int size) {
+        var sizeClass = sizeClass(size);
+        if (freeCounts[sizeClass] == freeChunks[sizeClass].length) {
+            freeChunks[sizeClass] = Arrays.copyOf(freeChunks[sizeClass], freeChunks[sizeClass].length << 1);
+        }
+        freeChunks[sizeClass][freeCounts[sizeClass]++] = address;
+    }
+
+    void write(long address, byte[] data) {
+        page(address).put(offset(address), data);
+    }
+
+    void read(long address, byte[] destination) {
+        page(address).get(offset(address), destination);
+    }
+
+    void read(long address, int length, ByteBuffer destination) {
+        destination.put(destination.position(), page(address), offset(address), length);
+        destination.position(destination.position() + length);
+    }
+
+    long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private void addPage(int sizeClass) {
+        var chunkSize = chunkSizes[sizeClass];
+        var chunks = Math.max(1, MIN_PAGE_SIZE / chunkSize);
+        var pageId = (long) pages.size();
+        pages.add(ByteBuffer.allocateDirect(chunks * chunkSize));
+        allocatedBytes += (long) chunks * chunkSize;
+        if (freeChunks[sizeClass].length < chunks) {
+            freeChunks[sizeClass] = Arrays.copyOf(freeChunks[sizeClass], chunks);
+        }
+        for (var chunk = chunks - 1; chunk >= 0; chunk--) {
+            freeChunks[sizeClass][freeCounts[sizeClass]++] = pageId << 32 | (long) chunk * chunkSize;
+        }
+    }
+
+    private int sizeClass(int size) {
+        var idx = Arrays.binarySearch(chunkSizes, size);
+        return idx >= 0 ? idx : -idx - 1;
+    }
+
+    private ByteBuffer page(long address) {
+        return pages.get((int) (address >>> 32));
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+}
@@ -0,0 +1,54 @@
+package cachevg.storage;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public interface Storage {
+    Value get(Key key);
+
+    Value put(Key key, Value value);
+
+    Value remove(Key key);
+
+    Value[] getAll(Key[] keys);
+
+    void putAll(Key[] keys, Value[] values);
+
+    int removeAll(Key[] keys);
+
+    // adds delta to the counter under the key, creating it at zero; throws WrongTypeException for other types
+    long increment(Key key, long delta);
+
+    // runs the operation on the live value under the shard read lock; returns null when the key is absent
+    <V extends Value, R> R read(Key key, Class<V> kind, Function<V, R> operation);
+
+    // runs the operation on the live value under the shard write lock, so that it can change the value in place;
+    // an absent key starts out as the empty value, and a value left empty is removed with its key
+    <V extends Value, R> R update(Key key, Class<V> kind, Supplier<V> empty, Function<V, R> operation);
+
+    // walks the keyspace incrementally, starting and ending with cursor 0; keys present for the whole walk
+    // are visited at least once, whatever resizes happen between the calls
+    long scan(long cursor, int count, Consumer<Key> action);
+
+    int size();
+
+    StorageStats stats();
+
+    void expireEntries();
+
+    int shardsCount();
+
+    // visits a copy of the live entries of one shard, taken under the shard lock,
+    // so that slow consumers such as file writers do not block the shard
+    void forEachInShard(int shard, BiConsumer<Key, Value> action);
+
+    // removes every entry, reporting each key to the mutation listeners
+    void clear();
+
+    // listeners see every mutation of every shard; they are called in the order they were added
+    void addMutationListener(MutationListener listener);
+
+    void removeMutationListener(MutationListener listener);
+}
@@ -0,0 +1,6 @@
+package cachevg.storage;
+
+public enum StorageMode {
+    HEAP,
+    OFF_HEAP
+}
@@ -0,0 +1,4 @@
+package cachevg.storage;
+
+public record StorageStats(long entries, long usedMemoryBytes, long evictions, long expirations, long offHeapBytes) {
+}
@@ -0,0 +1,105 @@
+package cachevg.storage;
+
+import java.util.function.Consumer;
+
+class TimingWheel {
+    static final int TICK_MS = 10;
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final long MAX_DELTA = 1L << (SLOT_BITS * LEVELS);
+
+    private final Entry[][] levels = new Entry[LEVELS][1 << SLOT_BITS];
+    private long currentTick;
+    private int scheduled;
+
+    TimingWheel(long nowMillis) {
+        this.currentTick = nowMillis / TICK_MS;
+        for (var level : levels) {
+            for (var slot = 0; slot < level.length; slot++) {
+                var sentinel = new Entry(null, null);
+                sentinel.timerNext = sentinel;
+                sentinel.timerPrev = sentinel;
+                level[slot] = sentinel;
+            }
+        }
+    }
+
+    void schedule(Entry entry, long deadlineMillis) {
+        cancel(entry);
+        link(entry, Math.max(Math.ceilDiv(deadlineMillis, TICK_MS), currentTick + 1));
+        scheduled++;
+    }
+
+    void cancel(Entry entry) {
+        if (entry.timerNext != null) {
+            unlink(entry);
+            scheduled--;
+        }
+    }
+
+    void advance(long nowMillis, Consumer<Entry> onExpired) {
+        var targetTick = nowMillis / TICK_MS;
+        while (currentTick < targetTick) {
+            currentTick++;
+            if (scheduled == 0) {
+                currentTick = targetTick;
+                return;
+            }
+            cascade();
+            var sentinel = levels[0][(int) currentTick & SLOT_MASK];
+            while (sentinel.timerNext != sentinel) {
+                var entry = sentinel.timerNext;
+                unlink(entry);
+                scheduled--;
+                onExpired.accept(entry);
+            }
+        }
+    }
+
+    int scheduled() {
+        return scheduled;
+    }
+
+    // timers of a higher level slot are spread over the lower levels when the lower ones wrap around
+    private void cascade() {
+        for (var level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            var sentinel = levels[level][(int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK];
+            var entry = sentinel.timerNext;
+            sentinel.timerNext = sentinel;
+            sentinel.timerPrev = sentinel;
+            while (entry != sentinel) {
+                var next = entry.timerNext;
+                entry.timerNext = null;
+                entry.timerPrev = null;
+                link(entry, Math.max(Math.ceilDiv(entry.value.getExpireAt(), TICK_MS), currentTick));
+                entry = next;
+            }
+        }
+    }
+
+    private void link(Entry entry, long expiresTick) {
+        var delta = expiresTick - currentTick;
+        var level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        // deadlines beyond the last level wait in its farthest slot and are re-linked on cascade
+        var slotTick = delta < MAX_DELTA ? expiresTick : currentTick + MAX_DELTA - 1;
+        var sentinel = levels[level][(int) (slotTick >>> (SLOT_BITS * level)) & SLOT_MASK];
+        entry.timerPrev = sentinel.timerPrev;
+        entry.timerNext = sentinel;
+        sentinel.timerPrev.timerNext = entry;
+        sentinel.timerPrev = entry;
+    }
+
+    private static void unlink(Entry entry) {
+        entry.timerPrev.timerNext = entry.timerNext;
+        entry.timerNext.timerPrev = entry.timerPrev;
+        entry.timerNext = null;
+        entry.timerPrev = null;
+    }
+}
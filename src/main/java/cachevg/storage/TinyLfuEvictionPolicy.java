@@ -0,0 +1,91 @@
+package cachevg.storage;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+public class TinyLfuEvictionPolicy implements EvictionPolicy {
+    private static final int WINDOW_PERCENT = 1;
+
+    private final FrequencySketch sketch;
+    private final Deque<Entry> window = new ArrayDeque<>();
+    private int mainSize;
+
+    public TinyLfuEvictionPolicy(int expectedEntries) {
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    @Override
+    public void onAccess(Entry entry) {
+        entry.accessTime = EvictionPolicy.clock();
+        sketch.increment(entry.key);
+    }
+
+    @Override
+    public void onInsert(Entry entry) {
+        entry.accessTime = EvictionPolicy.clock();
+        entry.inWindow = true;
+        window.addLast(entry);
+        sketch.increment(entry.key);
+    }
+
+    @Override
+    public void onRemove(Entry entry) {
+        entry.removed = true;
+        if (!entry.inWindow) {
+            mainSize--;
+        }
+    }
+
+    @Override
+    public Entry selectVictim(Supplier<Entry> sampler) {
+        var candidate = window.size() > windowLimit() ? pollWindow() : null;
+        var victim = sampleMainVictim(sampler);
+        if (candidate == null) {
+            return victim != null ? victim : pollWindow();
+        }
+        // with nothing to compare against, the candidate goes, so that the shard always gets below its limit
+        if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            return victim;
+        }
+        return candidate;
+    }
+
+    @Override
+    public void rebalance() {
+        var windowLimit = windowLimit();
+        while (window.size() > windowLimit) {
+            pollWindow();
+        }
+    }
+
+    private int windowLimit() {
+        return Math.max(1, (window.size() + mainSize) * WINDOW_PERCENT / 100);
+    }
+
+    // the entry leaves the window and competes for the main area
+    private Entry pollWindow() {
+        Entry entry;
+        while ((entry = window.pollFirst()) != null) {
+            if (!entry.removed) {
+                entry.inWindow = false;
+                mainSize++;
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private Entry sampleMainVictim(Supplier<Entry> sampler) {
+        var now = EvictionPolicy.clock();
+        Entry victim = null;
+        for (var idx = 0; idx < SAMPLES; idx++) {
+            var candidate = sampler.get();
+            if (candidate != null && !candidate.inWindow
+                && (victim == null || now - candidate.accessTime > now - victim.accessTime)) {
+                victim = candidate;
+            }
+        }
+        return victim;
+    }
+}
@@ -2,10 +2,80 @@ package cachevg.storage;
 
 import cachevg.types.Type;
 
+import java.nio.ByteBuffer;
+
 public class Value {
     private final Type type;
+    private final byte[] data;
+    private final long expireAt;
+
+    public Value(Type type, byte[] data) {
+        this(type, data, 0);
+    }
 
-    public Value(Type type) {
+    public Value(Type type, byte[] data, long expireAt) {
         this.type = type;
+        this.data = data;
+        this.expireAt = expireAt;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public long getExpireAt() {
+        return expireAt;
+    }
+
+    public int length() {
+        return data.length;
+    }
+
+    public void writeTo(ByteBuffer destination) {
+        destination.put(data);
+    }
+
+    // the bytes clients read, which differ from getData() only for values kept in another encoding
+    public byte[] content() {
+        return getData();
+    }
+
+    public int contentLength() {
+        return length();
+    }
+
+    public void writeContentTo(ByteBuffer destination) {
+        writeTo(destination);
+    }
+
+    public int weight() {
+        return length();
+    }
+
+    // collections emptied by a command are removed together with their key
+    boolean isEmpty() {
+        return false;
+    }
+
+    // rebuilds a value from the bytes getData returned, as persisted by the log and snapshots
+    public static Value decode(Type type, byte[] data, long expireAt) {
+        return switch (type) {
+            case STRING -> new Value(type, data, expireAt);
+            case COUNTER -> CounterValue.decode(data, expireAt);
+            case HASH -> HashValue.decode(data, expireAt);
+            case LIST -> ListValue.decode(data, expireAt);
+            case COMPRESSED_STRING -> new CompressedValue(data, expireAt);
+        };
+    }
+
+    Value detach() {
+        return this;
+    }
+
+    void release() {
     }
 }
@@ -0,0 +1,115 @@
+package cachevg.storage;
+
+import cachevg.metrics.LatencyHistogram;
+import cachevg.metrics.Meter;
+import cachevg.metrics.Metrics;
+import cachevg.types.Type;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+// deflates strings of at least the threshold before they are stored. Runs on the processing thread, outside the
+// shard locks; a value that would not shrink is stored as it is. CPU time is the thread's own where the JVM
+// measures it, wall time otherwise, which is close for a call that never blocks
+public final class ValueCompressor {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final int thresholdBytes;
+    private final CodecPool<Deflating> deflaters;
+    private final Meter compressed;
+    private final Meter incompressible;
+    private final Meter bytesIn;
+    private final Meter bytesOut;
+    private final Meter cpuNanos;
+    private final LatencyHistogram cpu;
+
+    public ValueCompressor(int thresholdBytes, int level, Metrics metrics) {
+        this.thresholdBytes = thresholdBytes;
+        this.deflaters = new CodecPool<>(
+                Runtime.getRuntime().availableProcessors(),
+                () -> new Deflating(new Deflater(level)),
+                deflating -> deflating.deflater.end());
+        this.compressed = metrics.meter("compression.values");
+        this.incompressible = metrics.meter("compression.incompressible");
+        this.bytesIn = metrics.meter("compression.bytes_in");
+        this.bytesOut = metrics.meter("compression.bytes_out");
+        this.cpuNanos = metrics.meter("compression.cpu_ns");
+        this.cpu = metrics.histogram("compression.cpu");
+        // stored size as a percentage of the original size of the compressed values
+        metrics.gauge("compression.ratio_percent", () -> {
+            var in = bytesIn.count();
+            return in == 0 ? 100 : bytesOut.count() * 100 / in;
+        });
+    }
+
+    public Value compress(Value value) {
+        // a value no longer than the length header can't get smaller, whatever the threshold
+        if (value.getType() != Type.STRING
+            || value.length() < thresholdBytes
+            || value.length() <= CompressedValue.HEADER_BYTES) {
+            return value;
+        }
+        var start = cpuTime();
+        var data = value.getData();
+        var length = CompressedValue.HEADER_BYTES;
+        boolean finished;
+        Value result;
+        var deflating = deflaters.acquire();
+        try {
+            var output = deflating.scratch(data.length);
+            ByteBuffer.wrap(output).putInt(data.length);
+            var deflater = deflating.deflater;
+            deflater.reset();
+            deflater.setInput(data);
+            deflater.finish();
+            // the output is capped at the original size, so deflating stops as soon as it cannot pay off
+            while (!deflater.finished() && length < data.length) {
+                length += deflater.deflate(output, length, data.length - length);
+            }
+            finished = deflater.finished();
+            result = finished ? new CompressedValue(Arrays.copyOf(output, length), value.getExpireAt()) : value;
+        } finally {
+            deflaters.release(deflating);
+        }
+        var elapsed = cpuTime() - start;
+        cpu.record(elapsed);
+        cpuNanos.mark(elapsed);
+        if (finished) {
+            compressed.mark(1);
+            bytesIn.mark(data.length);
+            bytesOut.mark(length);
+        } else {
+            incompressible.mark(1);
+        }
+        return result;
+    }
+
+    // ends the pooled deflaters; the inflaters belong to CompressedValue, see endInflaters
+    public void close() {
+        deflaters.close();
+    }
+
+    private static long cpuTime() {
+        var cpuTime = THREADS.getCurrentThreadCpuTime();
+        return cpuTime >= 0 ? cpuTime : System.nanoTime();
+    }
+
+    private static final class Deflating {
+        private final Deflater deflater;
+        private byte[] scratch = new byte[0];
+
+        private Deflating(Deflater deflater) {
+            this.deflater = deflater;
+        }
+
+        private byte[] scratch(int length) {
+            if (scratch.length < length) {
+                scratch = new byte[length];
+            }
+            return scratch;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package cachevg.storage;
+
+import cachevg.command.Replies;
+import cachevg.types.Type;
+
+// thrown by typed commands on a key holding another type; without a stack trace, as clients trigger it at will
+public class WrongTypeException extends RuntimeException {
+
+    public WrongTypeException(Type actual) {
+        super(Replies.wrongType(actual), null, false, false);
+    }
+}
@@ -0,0 +1,193 @@
+package cachevg.tracking;
+
+import cachevg.command.ReplyCodes;
+import cachevg.connection.tcp.server.Server;
+import cachevg.metrics.Meter;
+import cachevg.metrics.Metrics;
+import cachevg.parser.MessageParser;
+import cachevg.storage.Key;
+import cachevg.storage.MutationListener;
+import cachevg.storage.Value;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// which tracking connections may cache which keys: one bit per connection in every bucket of a fixed table that
+// keys are hashed into, so the table stays at buckets * maxClients bits whatever the keyspace. Keys sharing a
+// bucket share the bits, so a write invalidates the whole bucket: the connection is sent the bucket rather than
+// the key and drops every key it caches there, which lets the write clear the bits, and the connection is told
+// again only once it read from the bucket again. Connections tracking prefixes are told about every key written
+// under them and leave no bits.
+// Invalidations are collected under the shard lock of the written key and sent once the writer released it,
+// so a connection slow to take its replies never holds up the shard
+public class KeyTracker implements MutationListener {
+    private static final Logger log = LogManager.getLogger(KeyTracker.class);
+    private static final TrackedClient[] NO_CLIENTS = new TrackedClient[0];
+
+    private final Server server;
+    private final int bucketMask;
+    private final int words;
+    private final AtomicLongArray table;
+    private final AtomicReferenceArray<TrackedClient> clients;
+    private final ThreadLocal<List<Invalidation>> unsent = ThreadLocal.withInitial(ArrayList::new);
+    private final Meter invalidations;
+    private volatile TrackedClient[] broadcast = NO_CLIENTS;
+    private int tracking;
+
+    // buckets is rounded up to a power of two
+    public KeyTracker(Server server, int buckets, int maxClients, Metrics metrics) {
+        this.server = server;
+        var tableBuckets = Integer.highestOneBit(Math.max(1, buckets - 1) << 1);
+        this.bucketMask = tableBuckets - 1;
+        this.words = (maxClients + Long.SIZE - 1) / Long.SIZE;
+        this.table = new AtomicLongArray(tableBuckets * words);
+        this.clients = new AtomicReferenceArray<>(maxClients);
+        this.invalidations = metrics.meter("tracking.invalidations");
+        metrics.gauge("tracking.clients", this::trackingClients);
+        log.info(
+                "Key tracking table, buckets:{}, clients:{}, bytes:{}",
+                tableBuckets,
+                maxClients,
+                (long) table.length() * Long.BYTES);
+    }
+
+    // returns the id of the connection in the table, or -1 when every id is taken
+    public synchronized int register(SocketAddress address, List<byte[]> prefixes) {
+        for (var id = 0; id < clients.length(); id++) {
+            if (clients.get(id) == null) {
+                var client = new TrackedClient(id, address, prefixes.toArray(new byte[0][]));
+                clients.set(id, client);
+                tracking++;
+                if (client.isBroadcast()) {
+                    var copy = new ArrayList<>(List.of(broadcast));
+                    copy.add(client);
+                    broadcast = copy.toArray(NO_CLIENTS);
+                }
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    // the id is free again only once its bits are cleared, so its next owner starts without them
+    public synchronized void unregister(int id) {
+        var client = clients.getAndSet(id, null);
+        if (client == null) {
+            return;
+        }
+        var word = id / Long.SIZE;
+        var bit = 1L << (id % Long.SIZE);
+        for (var index = word; index < table.length(); index += words) {
+            if ((table.get(index) & bit) != 0) {
+                table.accumulateAndGet(index, ~bit, (bits, mask) -> bits & mask);
+            }
+        }
+        tracking--;
+        if (client.isBroadcast()) {
+            var copy = new ArrayList<>(List.of(broadcast));
+            copy.remove(client);
+            broadcast = copy.toArray(NO_CLIENTS);
+        }
+    }
+
+    // called before the key is read, so a write racing with the read still finds the bit
+    public void recordRead(int id, Key key) {
+        var index = bucket(key) * words + id / Long.SIZE;
+        var bit = 1L << (id % Long.SIZE);
+        // hot keys are read far more often than written, so the bit is usually set already
+        if ((table.get(index) & bit) == 0) {
+            table.accumulateAndGet(index, bit, (word, mask) -> word | mask);
+        }
+    }
+
+    @Override
+    public void onPut(Key key, Value value) {
+        invalidate(key);
+    }
+
+    @Override
+    public void onRemove(Key key) {
+        invalidate(key);
+    }
+
+    @Override
+    public void afterUnlock() {
+        var pending = unsent.get();
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (var invalidation : pending) {
+            server.send(invalidation.address(), invalidation.frame().duplicate());
+        }
+        invalidations.mark(pending.size());
+        pending.clear();
+    }
+
+    private void invalidate(Key key) {
+        var bucket = bucket(key);
+        var start = bucket * words;
+        ByteBuffer bucketFrame = null;
+        for (var word = 0; word < words; word++) {
+            if (table.get(start + word) == 0) {
+                continue;
+            }
+            for (var bits = table.getAndSet(start + word, 0); bits != 0; bits &= bits - 1) {
+                var client = clients.get(word * Long.SIZE + Long.numberOfTrailingZeros(bits));
+                if (client != null) {
+                    bucketFrame = bucketFrame != null ? bucketFrame : bucketFrame(bucket);
+                    send(client, bucketFrame);
+                }
+            }
+        }
+        ByteBuffer keyFrame = null;
+        for (var client : broadcast) {
+            if (client.matches(key.getBytes())) {
+                keyFrame = keyFrame != null ? keyFrame : keyFrame(key);
+                send(client, keyFrame);
+            }
+        }
+    }
+
+    private void send(TrackedClient client, ByteBuffer frame) {
+        unsent.get().add(new Invalidation(client.address(), frame));
+    }
+
+    // header, length, begin, INVALIDATE_BUCKET, bucket, bucket mask, end
+    private ByteBuffer bucketFrame(int bucket) {
+        var length = 1 + 2 * Integer.BYTES;
+        var frame = ByteBuffer.allocate(MessageParser.FRAME_OVERHEAD + length);
+        frame.put(MessageParser.HEADER).putInt(length).put(MessageParser.BEGIN_MESSAGE);
+        frame.put(ReplyCodes.INVALIDATE_BUCKET).putInt(bucket).putInt(bucketMask);
+        frame.put(MessageParser.END_MESSAGE);
+        return frame.flip();
+    }
+
+    // header, length, begin, INVALIDATE, key length, key, end
+    private static ByteBuffer keyFrame(Key key) {
+        var bytes = key.getBytes();
+        var length = 1 + Integer.BYTES + bytes.length;
+        var frame = ByteBuffer.allocate(MessageParser.FRAME_OVERHEAD + length);
+        frame.put(MessageParser.HEADER).putInt(length).put(MessageParser.BEGIN_MESSAGE);
+        frame.put(ReplyCodes.INVALIDATE).putInt(bytes.length).put(bytes);
+        frame.put(MessageParser.END_MESSAGE);
+        return frame.flip();
+    }
+
+    // clients find the keys of a bucket the same way, with Key.hash
+    private int bucket(Key key) {
+        return key.hashCode() & bucketMask;
+    }
+
+    private synchronized long trackingClients() {
+        return tracking;
+    }
+
+    private record Invalidation(SocketAddress address, ByteBuffer frame) {
+    }
+}
@@ -0,0 +1,21 @@
+package cachevg.tracking;
+
+import java.net.SocketAddress;
+import java.util.Arrays;
+
+// a connection in the tracking table; with prefixes it is told about every write under them instead of its reads
+record TrackedClient(int id, SocketAddress address, byte[][] prefixes) {
+
+    boolean isBroadcast() {
+        return prefixes.length > 0;
+    }
+
+    boolean matches(byte[] key) {
+        for (var prefix : prefixes) {
+            if (key.length >= prefix.length && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
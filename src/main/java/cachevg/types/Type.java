@@ -1,4 +1,15 @@
 package cachevg.types;
 
-public class Type {
+public enum Type {
+    STRING,
+    COUNTER,
+    HASH,
+    LIST,
+    // a STRING kept deflated, see CompressedValue; clients read it as a string
+    COMPRESSED_STRING;
+
+    // collections are read through their own commands, GET only returns strings and counters
+    public boolean isCollection() {
+        return this == HASH || this == LIST;
+    }
 }
@@ -0,0 +1,128 @@
+package cachevg.replication;
+
+import cachevg.metrics.Metrics;
+import cachevg.storage.EvictionPolicyType;
+import cachevg.storage.Key;
+import cachevg.storage.ShardedStorage;
+import cachevg.storage.StorageMode;
+import cachevg.storage.Value;
+import cachevg.types.Type;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// a primary and a replica storage linked over loopback; the replica never expires or evicts on its own here,
+// so every key it drops was removed by the stream
+class ReplicationLoopbackTest {
+    private static final int MAX_ENTRIES = 16;
+    private static final long TIMEOUT_MS = 5_000;
+
+    private ShardedStorage primary;
+    private ShardedStorage replica;
+    private ReplicationSource source;
+    private ReplicaLink link;
+
+    @BeforeEach
+    void link() throws IOException {
+        int port;
+        try (var probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        primary = new ShardedStorage(1, 0, MAX_ENTRIES, EvictionPolicyType.LRU, StorageMode.HEAP);
+        replica = new ShardedStorage(1);
+        source = new ReplicationSource(port, 1024 * 1024, primary, new Metrics());
+        source.start();
+        link = new ReplicaLink(InetAddress.getLoopbackAddress().getHostAddress(), port, replica, new Metrics());
+        link.start();
+        await(link::isLinked, "replica linked");
+    }
+
+    @AfterEach
+    void unlink() {
+        if (link != null) {
+            link.close();
+        }
+        if (source != null) {
+            source.close();
+        }
+    }
+
+    @Test
+    void replicatesPutsAndRemoves() {
+        primary.put(Key.of("kept"), string("value", 0));
+        primary.put(Key.of("removed"), string("value", 0));
+        primary.remove(Key.of("removed"));
+        await(() -> replica.get(Key.of("kept")) != null, "put replicated");
+        await(() -> replica.size() == 1, "remove replicated");
+        assertArrayEquals(bytes("value"), replica.get(Key.of("kept")).getData());
+    }
+
+    @Test
+    void replicatesExpirations() throws InterruptedException {
+        primary.put(Key.of("expiring"), string("value", System.currentTimeMillis() + 50));
+        primary.put(Key.of("kept"), string("value", 0));
+        await(() -> replica.size() == 2, "puts replicated");
+        Thread.sleep(100);
+        await(() -> {
+            primary.expireEntries();
+            return replica.size() == 1;
+        }, "expiration replicated");
+        assertNotNull(replica.get(Key.of("kept")));
+        assertEquals(1, primary.stats().expirations());
+    }
+
+    @Test
+    void replicatesEvictions() {
+        var keys = MAX_ENTRIES * 4;
+        for (var idx = 0; idx < keys; idx++) {
+            primary.put(Key.of("key:" + idx), string("value:" + idx, 0));
+        }
+        assertTrue(primary.size() <= MAX_ENTRIES, "primary is within its limit");
+        await(() -> replica.get(Key.of("key:" + (keys - 1))) != null, "puts replicated");
+        await(() -> replica.size() == primary.size(), "evictions replicated");
+        for (var idx = 0; idx < keys; idx++) {
+            var key = Key.of("key:" + idx);
+            if (primary.get(key) == null) {
+                assertNull(replica.get(key), "evicted key:" + idx + " is still on the replica");
+            } else {
+                assertNotNull(replica.get(key), "key:" + idx + " is missing on the replica");
+            }
+        }
+    }
+
+    private static Value string(String value, long expireAt) {
+        return new Value(Type.STRING, bytes(value), expireAt);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void await(BooleanSupplier condition, String what) {
+        var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for: " + what);
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError("Interrupted waiting for: " + what, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package cachevg.tracking;
+
+import cachevg.command.ReplyCodes;
+import cachevg.connection.tcp.server.ClientEventsListener;
+import cachevg.connection.tcp.server.Server;
+import cachevg.metrics.Metrics;
+import cachevg.parser.MessageParser;
+import cachevg.storage.Key;
+import cachevg.storage.Value;
+import cachevg.types.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// a tracker over a server that only records what it is asked to send
+class KeyTrackerTest {
+    private static final int BUCKETS = 16;
+    private static final SocketAddress READER = new InetSocketAddress("127.0.0.1", 1);
+    private static final SocketAddress OTHER = new InetSocketAddress("127.0.0.1", 2);
+
+    private RecordingServer server;
+    private KeyTracker tracker;
+
+    @BeforeEach
+    void track() {
+        server = new RecordingServer();
+        tracker = new KeyTracker(server, BUCKETS, 2, new Metrics());
+    }
+
+    @Test
+    void writeToReadKeySendsItsBucket() {
+        var id = tracker.register(READER, List.of());
+        var key = Key.of("read");
+        tracker.recordRead(id, key);
+        write(key);
+        assertEquals(1, server.sent.size());
+        var sent = server.sent.get(0);
+        assertEquals(READER, sent.address());
+        var frame = sent.frame();
+        assertEquals(ReplyCodes.INVALIDATE_BUCKET, frame.get(MessageParser.BEGIN_MESSAGE_INDEX + 1));
+        var bucket = frame.getInt(MessageParser.BEGIN_MESSAGE_INDEX + 2);
+        var bucketMask = frame.getInt(MessageParser.BEGIN_MESSAGE_INDEX + 2 + Integer.BYTES);
+        assertEquals(BUCKETS - 1, bucketMask);
+        assertEquals(Key.hash(key.getBytes()) & bucketMask, bucket);
+    }
+
+    @Test
+    void invalidationClearsTheBucket() {
+        var id = tracker.register(READER, List.of());
+        var key = Key.of("read");
+        tracker.recordRead(id, key);
+        write(key);
+        write(key);
+        assertEquals(1, server.sent.size(), "the bucket was invalidated once already");
+        tracker.recordRead(id, key);
+        write(key);
+        assertEquals(2, server.sent.size(), "a new read tracks the bucket again");
+    }
+
+    @Test
+    void writeToUnreadBucketSendsNothing() {
+        var id = tracker.register(READER, List.of());
+        var read = Key.of("read");
+        tracker.recordRead(id, read);
+        write(keyOutsideBucketOf(read));
+        assertTrue(server.sent.isEmpty());
+    }
+
+    @Test
+    void unregisterClearsTheBits() {
+        var id = tracker.register(READER, List.of());
+        var key = Key.of("read");
+        tracker.recordRead(id, key);
+        tracker.unregister(id);
+        assertEquals(id, tracker.register(OTHER, List.of()), "the id is reused");
+        write(key);
+        assertTrue(server.sent.isEmpty());
+    }
+
+    @Test
+    void prefixClientsGetEveryKeyUnderThem() {
+        tracker.register(READER, List.of(bytes("user:")));
+        write(Key.of("user:1"));
+        write(Key.of("user:1"));
+        write(Key.of("order:1"));
+        assertEquals(2, server.sent.size());
+        var frame = server.sent.get(0).frame();
+        assertEquals(ReplyCodes.INVALIDATE, frame.get(MessageParser.BEGIN_MESSAGE_INDEX + 1));
+        assertEquals(bytes("user:1").length, frame.getInt(MessageParser.BEGIN_MESSAGE_INDEX + 2));
+    }
+
+    private void write(Key key) {
+        tracker.onPut(key, new Value(Type.STRING, bytes("value"), 0));
+        tracker.afterUnlock();
+    }
+
+    private static Key keyOutsideBucketOf(Key key) {
+        for (var idx = 0; ; idx++) {
+            var other = Key.of("other:" + idx);
+            if (((other.hashCode() ^ key.hashCode()) & (BUCKETS - 1)) != 0) {
+                return other;
+            }
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Sent(SocketAddress address, ByteBuffer frame) {
+    }
+
+    private static final class RecordingServer implements Server {
+        private final List<Sent> sent = new ArrayList<>();
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public void setClientEventsListener(ClientEventsListener listener) {
+        }
+
+        @Override
+        public boolean send(SocketAddress clientAddress, byte[] data) {
+            return send(clientAddress, ByteBuffer.wrap(data));
+        }
+
+        @Override
+        public boolean send(SocketAddress clientAddress, ByteBuffer data) {
+            sent.add(new Sent(clientAddress, data));
+            return true;
+        }
+    }
+}